@@ -0,0 +1,37 @@
+package ru.practicum.common;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Виртуальные потоки (JDK 21+) через reflection: сборка остаётся на Java 11.
+ * На JDK без них (или с ними только в preview) методы возвращают null, и вызывающий остаётся на обычных потоках.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    //Фабрика виртуальных потоков с именами prefix0, prefix1, ...
+    public static ThreadFactory factory(String prefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method name = builderType.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    //Новый виртуальный поток на каждую задачу, без пула: ограничивать их число нет смысла
+    public static Executor perTaskExecutor(String prefix) {
+        ThreadFactory factory = factory(prefix);
+        if (factory == null) {
+            return null;
+        }
+        return task -> factory.newThread(task).start();
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Режим execution.virtual-threads.enabled=true: запросы Tomcat обрабатываются в виртуальных потоках,
+ * и число одновременных запросов не ограничено размером пула потоков-обработчиков.
+ * На JDK без виртуальных потоков остаётся обычный пул Tomcat (с предупреждением в логе).
+ * Общая для обоих сервисов, подключается через @Import в классе приложения.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "execution.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsProtocolHandler() {
+        Executor executor = VirtualThreads.perTaskExecutor("http-virtual-");
+        if (executor == null) {
+            log.warn("Virtual threads are not available on Java {}, Tomcat keeps its platform thread pool.",
+                    Runtime.version());
+            return handler -> {
+            };
+        }
+        log.info("Tomcat requests run on virtual threads.");
+        return handler -> handler.setExecutor(executor);
+    }
+}
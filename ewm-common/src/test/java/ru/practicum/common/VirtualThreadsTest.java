@@ -0,0 +1,64 @@
+package ru.practicum.common;
+
+import org.apache.coyote.ProtocolHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+//Сборка идёт на Java 11/17, поэтому всегда проверяется запасной путь; ветка JDK 21+ - только при запуске на нём
+class VirtualThreadsTest {
+
+    private static final boolean AVAILABLE = Runtime.version().feature() >= 21;
+
+    @Test
+    void fallsBackWithoutVirtualThreads() {
+        assumeTrue(!AVAILABLE);
+
+        assertNull(VirtualThreads.factory("test-"));
+        assertNull(VirtualThreads.perTaskExecutor("test-"));
+    }
+
+    //Без виртуальных потоков Tomcat остаётся на своём пуле: исполнитель не подменяется
+    @Test
+    void tomcatKeepsPlatformPoolWithoutVirtualThreads() {
+        assumeTrue(!AVAILABLE);
+        ProtocolHandler handler = mock(ProtocolHandler.class);
+
+        new VirtualThreadsConfig().virtualThreadsProtocolHandler().customize(handler);
+
+        verify(handler, never()).setExecutor(any());
+    }
+
+    @Test
+    void runsTasksOnNamedVirtualThreads() throws Exception {
+        assumeTrue(AVAILABLE);
+        ThreadFactory factory = VirtualThreads.factory("test-");
+        assertNotNull(factory);
+        assertEquals("test-0", factory.newThread(() -> {
+        }).getName());
+
+        Executor executor = VirtualThreads.perTaskExecutor("task-");
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(() -> {
+            thread.set(Thread.currentThread());
+            done.countDown();
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread.get()));
+    }
+}
@@ -4,6 +4,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.ResponseEntity;
 import ru.practicum.mainservice.model.dto.CategoryDto;
 import ru.practicum.mainservice.service.CategoryService;
 
@@ -26,10 +27,15 @@ public class PublicCategoryController {
     //Публичный слой
 
     @GetMapping("/categories")
-    public List<CategoryDto> findAll(@RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
-                                     @RequestParam(name = "size", defaultValue = "10") @Positive Integer size) {
-        log.info("Get request to find all categories from={}, size={}", from, size);
-        return service.findAll(from, size);
+    public ResponseEntity<List<CategoryDto>> findAll(@RequestParam(name = "from", defaultValue = "0")
+                                                     @PositiveOrZero Integer from,
+                                                     @RequestParam(name = "size", defaultValue = "10")
+                                                     @Positive Integer size,
+                                                     @RequestParam(name = "after", required = false) String after,
+                                                     @RequestParam(name = "withTotal", defaultValue = "false")
+                                                     Boolean withTotal) {
+        log.info("Get request to find all categories from={}, size={}, after={}", from, size, after);
+        return service.findAll(from, size, after, withTotal).toResponse();
     }
 
     @GetMapping("/categories/{id}")
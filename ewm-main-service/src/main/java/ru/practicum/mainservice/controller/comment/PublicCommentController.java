@@ -2,15 +2,22 @@ package ru.practicum.mainservice.controller.comment;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.mainservice.model.dto.CommentDto;
 import ru.practicum.mainservice.service.CommentService;
 
+import javax.validation.constraints.Positive;
+import java.util.List;
+
 @Slf4j
 @RestController
 @RequiredArgsConstructor
+@Validated
 public class PublicCommentController {
 
     private final CommentService service;
@@ -21,4 +28,15 @@ public class PublicCommentController {
 
         return service.findById(id);
     }
+
+    //Продолжение выдачи после первой страницы из EventFullDto.comments: after = commentsNextCursor
+    @GetMapping("/events/{eventId}/comments")
+    public ResponseEntity<List<CommentDto>> findByEvent(@PathVariable Integer eventId,
+                                                        @RequestParam(name = "after", required = false) String after,
+                                                        @RequestParam(name = "size", defaultValue = "10")
+                                                        @Positive Integer size) {
+        log.info("GET-request - find comments of event id={}, after={}, size={}", eventId, after, size);
+
+        return service.findByEvent(eventId, after, size).toResponse();
+    }
 }
@@ -4,6 +4,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.ResponseEntity;
 import ru.practicum.mainservice.model.dto.CompilationDto;
 import ru.practicum.mainservice.service.CompilationService;
 
@@ -26,11 +27,14 @@ public class PublicCompilationController {
     //Публичный слой
 
     @GetMapping("/compilations")
-    public List<CompilationDto> findAll(@RequestParam(name = "pinned", required = false) Boolean pinned,
+    public ResponseEntity<List<CompilationDto>> findAll(@RequestParam(name = "pinned", required = false) Boolean pinned,
                                         @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
-                                        @RequestParam(name = "size", defaultValue = "10") @Positive Integer size) {
-        log.info("Get request for find all compilations: pinned={}, from={}, size={}", pinned, from, size);
-        return service.findAll(pinned, from, size);
+                                        @RequestParam(name = "size", defaultValue = "10") @Positive Integer size,
+                                        @RequestParam(name = "after", required = false) String after,
+                                        @RequestParam(name = "withTotal", defaultValue = "false") Boolean withTotal) {
+        log.info("Get request for find all compilations: pinned={}, from={}, size={}, after={}",
+                pinned, from, size, after);
+        return service.findAll(pinned, from, size, after, withTotal).toResponse();
     }
 
     @GetMapping("/compilations/{compilationId}")
@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.ResponseEntity;
 import ru.practicum.mainservice.controller.model.AdminGetEventRequest;
 import ru.practicum.mainservice.controller.model.AdminUpdateEventRequest;
 import ru.practicum.mainservice.model.dto.EventFullDto;
@@ -30,7 +31,7 @@ public class AdminEventController {
     //Админский слой
 
     @GetMapping("/admin/events")
-    public List<EventFullDto> getAdminEvents(@RequestParam(name = "users", required = false) List<Integer> users,
+    public ResponseEntity<List<EventFullDto>> getAdminEvents(@RequestParam(name = "users", required = false) List<Integer> users,
                                              @RequestParam(name = "states", required = false) List<String> states,
                                              @RequestParam(name = "categories", required = false)
                                              List<Integer> categories,
@@ -41,12 +42,15 @@ public class AdminEventController {
                                              @RequestParam(name = "from", defaultValue = "0")
                                              @PositiveOrZero Integer from,
                                              @RequestParam(name = "size", defaultValue = "10")
-                                             @Positive Integer size) {
+                                             @Positive Integer size,
+                                             @RequestParam(name = "after", required = false) String after,
+                                             @RequestParam(name = "withTotal", defaultValue = "false")
+                                             Boolean withTotal) {
         AdminGetEventRequest request =
-                new AdminGetEventRequest(users, states, categories, rangeStart, rangeEnd, from, size);
+                new AdminGetEventRequest(users, states, categories, rangeStart, rangeEnd, from, size, after, withTotal);
         log.info("GET-request (admin) at /events: {}", request);
 
-        return service.getByAdmin(request);
+        return service.getByAdmin(request).toResponse();
     }
 
     @PutMapping("/admin/events/{eventId}")
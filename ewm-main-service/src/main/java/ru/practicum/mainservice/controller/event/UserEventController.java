@@ -4,6 +4,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.ResponseEntity;
 import ru.practicum.mainservice.controller.model.UpdateEventRequest;
 import ru.practicum.mainservice.model.dto.EventFullDto;
 import ru.practicum.mainservice.model.dto.EventShortDto;
@@ -30,14 +31,17 @@ public class UserEventController {
     //Авторизированный слой
 
     @GetMapping("/users/{userId}/events")
-    public List<EventShortDto> getByUser(@PathVariable Integer userId,
+    public ResponseEntity<List<EventShortDto>> getByUser(@PathVariable Integer userId,
                                              @RequestParam(name = "from", defaultValue = "0")
                                              @PositiveOrZero Integer from,
                                              @RequestParam(name = "size", defaultValue = "10")
-                                             @Positive Integer size) {
-        log.info("Get request for find all events (from={}, size={}) for user={}", from, size, userId);
+                                             @Positive Integer size,
+                                             @RequestParam(name = "after", required = false) String after,
+                                             @RequestParam(name = "withTotal", defaultValue = "false")
+                                             Boolean withTotal) {
+        log.info("Get request for find all events (from={}, size={}, after={}) for user={}", from, size, after, userId);
 
-        return service.getByUser(userId, from, size);
+        return service.getByUser(userId, from, size, after, withTotal).toResponse();
     }
 
     @PatchMapping("/users/{userId}/events")
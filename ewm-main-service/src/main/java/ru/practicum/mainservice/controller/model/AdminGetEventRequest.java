@@ -18,5 +18,7 @@ public class AdminGetEventRequest {
     private LocalDateTime rangeEnd;
     private Integer from;
     private Integer size;
+    private String after;
+    private boolean withTotal;
 
 }
@@ -0,0 +1,20 @@
+package ru.practicum.mainservice.controller.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.mainservice.util.status.RequestStatus;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventRequestStatusUpdateRequest {
+    @NotEmpty
+    private List<@NotNull Integer> requestIds;
+    @NotNull
+    private RequestStatus status;
+}
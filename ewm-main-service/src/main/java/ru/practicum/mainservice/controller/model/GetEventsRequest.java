@@ -21,6 +21,8 @@ public class GetEventsRequest {
     private String sort;
     private Integer from;
     private Integer size;
+    private String after;
+    private boolean withTotal;
     private HttpServletRequest info;
 
 }
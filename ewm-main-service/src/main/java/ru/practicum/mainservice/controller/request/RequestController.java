@@ -3,9 +3,12 @@ package ru.practicum.mainservice.controller.request;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.mainservice.controller.model.EventRequestStatusUpdateRequest;
+import ru.practicum.mainservice.model.dto.EventRequestStatusUpdateResult;
 import ru.practicum.mainservice.model.dto.ParticipationRequestDto;
 import ru.practicum.mainservice.service.RequestService;
 
+import javax.validation.Valid;
 import java.util.List;
 
 @Slf4j
@@ -54,6 +57,15 @@ public class RequestController {
         return service.confirm(userId, eventId, requestId);
     }
 
+    @PatchMapping("/users/{userId}/events/{eventId}/requests")
+    public EventRequestStatusUpdateResult updateStatuses(@PathVariable("userId") Integer userId,
+                                                         @PathVariable("eventId") Integer eventId,
+                                                         @RequestBody @Valid EventRequestStatusUpdateRequest request) {
+        log.info("Get request for set status {} to requests {} for event id={} by user id={}",
+                request.getStatus(), request.getRequestIds(), eventId, userId);
+        return service.updateStatuses(userId, eventId, request);
+    }
+
     @PatchMapping("/users/{userId}/events/{eventId}/requests/{requestId}/reject")
     public ParticipationRequestDto reject(@PathVariable("userId") Integer userId,
                                                  @PathVariable("eventId") Integer eventId,
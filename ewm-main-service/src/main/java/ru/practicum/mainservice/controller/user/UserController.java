@@ -4,6 +4,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.ResponseEntity;
 import ru.practicum.mainservice.model.dto.UserDto;
 import ru.practicum.mainservice.service.UserService;
 
@@ -26,14 +27,16 @@ public class UserController {
     }
 
     @GetMapping
-    public List<UserDto> get(@RequestParam(required = false) List<Integer> ids,
+    public ResponseEntity<List<UserDto>> get(@RequestParam(required = false) List<Integer> ids,
                                   @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
-                                  @RequestParam(name = "size", defaultValue = "10") @Positive Integer size) {
-        log.info("Get all requests from={}, size={} with ids={}", from, size, ids);
+                                  @RequestParam(name = "size", defaultValue = "10") @Positive Integer size,
+                                  @RequestParam(name = "after", required = false) String after,
+                                  @RequestParam(name = "withTotal", defaultValue = "false") Boolean withTotal) {
+        log.info("Get all requests from={}, size={}, after={} with ids={}", from, size, after, ids);
         if (ids == null || ids.isEmpty()) {
-            return service.getAll(from, size);
+            return service.getAll(from, size, after, withTotal).toResponse();
         }
-        return service.getByIds(ids);
+        return ResponseEntity.ok(service.getByIds(ids));
     }
 
     @PostMapping
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.practicum.mainservice.exception.BadRequestException;
+import ru.practicum.mainservice.exception.ConflictException;
 import ru.practicum.mainservice.exception.NotFoundException;
 import ru.practicum.mainservice.exception.RestrictedException;
 
@@ -108,6 +109,18 @@ public class ErrorHandler {
         return response;
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiErrorResponse handleConflictException(final ConflictException e) {
+        log.error("ConflictException: {}", e.getMessage());
+        ApiErrorResponse response = new ApiErrorResponse();
+        response.setTimestamp(LocalDateTime.now());
+        response.setStatus("CONFLICT");
+        response.setMessage(e.getMessage());
+        response.setReason("For the requested operation the conditions are not met.");
+        return response;
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.CONFLICT)
     public ApiErrorResponse handleDataIntegrityViolationException(final DataIntegrityViolationException e) {
@@ -7,10 +7,13 @@ import ru.practicum.mainservice.controller.model.NewCommentDto;
 import ru.practicum.mainservice.controller.model.UpdateEventRequest;
 import ru.practicum.mainservice.model.*;
 import ru.practicum.mainservice.model.dto.*;
+import ru.practicum.mainservice.repository.RequestRepository;
 import ru.practicum.mainservice.util.status.CommentState;
+import ru.practicum.mainservice.util.status.RequestStatus;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @Mapper(componentModel = "spring")
 public interface UniversalMapper {
@@ -22,6 +25,16 @@ public interface UniversalMapper {
 
     List<EventShortDto> toShortDtoList(List<Event> eventList);
 
+    @Mapping(target = "category.id", source = "categoryId")
+    @Mapping(target = "category.name", source = "categoryName")
+    @Mapping(target = "initiator.id", source = "initiatorId")
+    @Mapping(target = "initiator.name", source = "initiatorName")
+    @Mapping(target = "confirmedRequests",
+            expression = "java(view.getConfirmedRequests()!= null ? view.getConfirmedRequests():0)")
+    EventShortDto toShortDto(EventShortView view);
+
+    List<EventShortDto> toShortDtoListFromViews(List<EventShortView> viewList);
+
     @Mapping(target = "confirmedRequests",
             expression = "java(event.getConfirmedRequests()!= null ? event.getConfirmedRequests():0)")
     @Mapping(target = "createdOn", dateFormat = "yyyy-MM-dd HH:mm:ss")
@@ -49,6 +62,9 @@ public interface UniversalMapper {
 
     List<CompilationDto> toDtoList(List<Compilation> entityList);
 
+    @Mapping(target = "events", source = "events")
+    CompilationDto toDto(Compilation entity, Set<EventShortDto> events);
+
     //Маппинг Category
     CategoryDto toCategoryDto(Category category);
 
@@ -71,11 +87,19 @@ public interface UniversalMapper {
 
     List<ParticipationRequestDto> toRequestDtoList(List<Request> entityList);
 
+    @Mapping(target = "id", source = "row.id")
+    @Mapping(target = "event", source = "eventId")
+    @Mapping(target = "created", source = "row.created")
+    @Mapping(target = "status", source = "status")
+    @Mapping(target = "requester", source = "row.requesterId")
+    ParticipationRequestDto toRequestDto(RequestRepository.RequestRow row, Integer eventId, RequestStatus status);
+
     //Маппинг Comments
     CommentDto toCommentDto(Comment entity);
 
     List<CommentDto> toCommentDtoList(List<Comment> entityList);
 
+    @Mapping(target = "id", ignore = true) //Иначе MapStruct берёт id автора из user
     @Mapping(target = "author", source = "user")
     @Mapping(target = "created", source = "creationDate")
     @Mapping(target = "state", source = "commentState")
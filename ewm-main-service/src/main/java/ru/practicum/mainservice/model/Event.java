@@ -4,7 +4,6 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.hibernate.annotations.Formula;
 import ru.practicum.mainservice.util.status.EventState;
 
 import javax.persistence.*;
@@ -57,10 +56,22 @@ public class Event {
     @Column(name = "state", nullable = false)
     @Enumerated(EnumType.STRING)
     private EventState state;
-    @Formula("(SELECT COUNT(*) FROM requests as r WHERE r.event_id=id AND r.status='CONFIRMED')")
+    //Счётчик ведёт RequestService атомарными update-ами (EventRepository), поэтому сущность его не пишет
+    @Column(name = "confirmed_requests", insertable = false, updatable = false)
     private Integer confirmedRequests;
+    //Просмотры, периодически синхронизируемые из stats-service (EventViewsSynchronizer), - для сортировки VIEWS
+    @Column(name = "views", insertable = false, updatable = false)
+    private Long storedViews;
     @Transient
     private Long views;
+    //Просмотры взяты из views, а не из stats-service (он недоступен)
+    @Transient
+    private boolean viewsStale;
+    //Первая страница комментариев, их общее число и курсор продолжения для /events/{eventId}/comments
     @Transient
     private List<Comment> comments = new ArrayList<>();
+    @Transient
+    private Long commentsCount;
+    @Transient
+    private String commentsNextCursor;
 }
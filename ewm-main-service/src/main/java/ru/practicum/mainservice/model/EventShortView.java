@@ -0,0 +1,46 @@
+package ru.practicum.mainservice.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка публичного списка ивентов: только колонки EventShortDto (плюс ключи курсора),
+ * выбираемые одним запросом с join-ами category и initiator - без description и без гидрации сущностей.
+ */
+@Getter
+public class EventShortView {
+    private final Integer id;
+    private final String title;
+    private final String annotation;
+    private final Integer categoryId;
+    private final String categoryName;
+    private final LocalDateTime eventDate;
+    private final Integer initiatorId;
+    private final String initiatorName;
+    private final Boolean paid;
+    private final Integer confirmedRequests;
+    private final Long storedViews;
+    @Setter
+    private Long views;
+    @Setter
+    private boolean viewsStale;
+
+    //Вызывается из criteria-запроса (cb.construct), порядок аргументов совпадает с EventSliceRepositoryImpl
+    public EventShortView(Integer id, String title, String annotation, Integer categoryId, String categoryName,
+                          LocalDateTime eventDate, Integer initiatorId, String initiatorName, Boolean paid,
+                          Integer confirmedRequests, Long storedViews) {
+        this.id = id;
+        this.title = title;
+        this.annotation = annotation;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.eventDate = eventDate;
+        this.initiatorId = initiatorId;
+        this.initiatorName = initiatorName;
+        this.paid = paid;
+        this.confirmedRequests = confirmedRequests;
+        this.storedViews = storedViews;
+    }
+}
@@ -10,7 +10,8 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "requests")
+@Table(name = "requests", uniqueConstraints = @UniqueConstraint(name = "uq_requests_event_requester",
+        columnNames = {"event_id", "requester_id"}))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -33,5 +33,8 @@ public class EventFullDto {
     private Boolean requestModeration;
     private String state;
     private Integer views;
+    private boolean viewsStale;
     private List<CommentDto> comments = new ArrayList<>();
+    private Long commentsCount;
+    private String commentsNextCursor;
 }
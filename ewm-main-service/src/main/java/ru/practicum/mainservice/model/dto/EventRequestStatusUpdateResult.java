@@ -0,0 +1,16 @@
+package ru.practicum.mainservice.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventRequestStatusUpdateResult {
+    private List<ParticipationRequestDto> confirmedRequests = new ArrayList<>();
+    private List<ParticipationRequestDto> rejectedRequests = new ArrayList<>();
+}
@@ -21,4 +21,5 @@ public class EventShortDto {
     private Boolean paid;
     private Integer confirmedRequests;
     private Integer views;
+    private boolean viewsStale;
 }
@@ -1,17 +1,52 @@
 package ru.practicum.mainservice.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.mainservice.model.Comment;
 import ru.practicum.mainservice.util.status.CommentState;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
-    List<Comment> findAllByEventIdInAndStateNot(List<Integer> eventIds, CommentState state);
+    //Первые limit комментариев каждого ивента и их общее число одним проходом по idx_comments_event_id
+    @Query(value = "SELECT t.id AS id, t.event_id AS eventId, t.total AS total " +
+            "FROM (SELECT c.id, c.event_id, " +
+            "             ROW_NUMBER() OVER (PARTITION BY c.event_id ORDER BY c.id) AS rn, " +
+            "             COUNT(*) OVER (PARTITION BY c.event_id) AS total " +
+            "      FROM comments c " +
+            "      WHERE c.event_id IN (:eventIds) AND c.state <> :state) t " +
+            "WHERE t.rn <= :limit", nativeQuery = true)
+    List<PreviewRow> findPreviewRows(@Param("eventIds") Collection<Integer> eventIds,
+                                     @Param("state") String excludedState,
+                                     @Param("limit") int limit);
 
+    //Авторы подтягиваются тем же запросом, а не ленивой загрузкой на каждый комментарий
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.id IN :ids ORDER BY c.id")
+    List<Comment> findWithAuthorByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @EntityGraph(attributePaths = "author")
+    Slice<Comment> findByEventIdAndStateNotAndIdGreaterThan(Integer eventId, CommentState state, Integer afterId,
+                                                           Pageable page);
+
+    @EntityGraph(attributePaths = "author")
     List<Comment> findAllByAuthorId(Integer authorId);
 
+    //Автор нужен в каждом CommentDto: без графа он догружался бы отдельным запросом на каждого автора
+    @EntityGraph(attributePaths = "author")
     List<Comment> findAllByState(CommentState state);
+
+    interface PreviewRow {
+        Integer getId();
+
+        Integer getEventId();
+
+        Long getTotal();
+    }
 }
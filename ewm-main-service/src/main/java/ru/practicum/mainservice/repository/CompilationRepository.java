@@ -1,13 +1,33 @@
 package ru.practicum.mainservice.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.mainservice.model.Compilation;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface CompilationRepository extends JpaRepository<Compilation, Integer> {
 
-    Page<Compilation> findAllByPinned(Boolean pinned, Pageable page);
+    Slice<Compilation> findAllByIdGreaterThan(Integer afterId, Pageable page);
+
+    Slice<Compilation> findAllByPinnedAndIdGreaterThan(Boolean pinned, Integer afterId, Pageable page);
+
+    long countByPinned(Boolean pinned);
+
+    //Состав сразу всех подборок страницы - одним запросом к events_compilations вместо lazy-загрузки каждой
+    @Query("SELECT c.id AS compilationId, e.id AS eventId FROM Compilation c JOIN c.events e" +
+            " WHERE c.id IN :ids")
+    List<EventLink> findEventLinks(@Param("ids") Collection<Integer> compilationIds);
+
+    interface EventLink {
+        Integer getCompilationId();
+
+        Integer getEventId();
+    }
 }
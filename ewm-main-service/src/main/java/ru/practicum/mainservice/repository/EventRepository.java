@@ -1,27 +1,92 @@
 package ru.practicum.mainservice.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.mainservice.model.Event;
+import ru.practicum.mainservice.model.EventShortView;
 import ru.practicum.mainservice.model.User;
+import ru.practicum.mainservice.util.status.EventState;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 @Repository
-public interface EventRepository extends JpaRepository<Event, Integer>, JpaSpecificationExecutor<Event> {
-    Page<Event> findAllByInitiator(User initiator, Pageable page);
+public interface EventRepository extends JpaRepository<Event, Integer>, JpaSpecificationExecutor<Event>,
+        EventSliceRepository {
+    //Категория и инициатор - eager-связи: без графа они догружались бы отдельным запросом на каждый ивент страницы
+    @EntityGraph(attributePaths = {"category", "initiator"})
+    Slice<Event> findAllByInitiatorAndIdGreaterThan(User initiator, Integer afterId, Pageable page);
+
+    long countByInitiator(User initiator);
 
     Set<Event> findByIdIn(List<Integer> ids);
 
     List<Event> findByIdIn(Set<Integer> ids, Pageable page);
 
+    //Короткие представления ивентов одним запросом с join-ами, без гидрации сущностей
+    @Query("SELECT new ru.practicum.mainservice.model.EventShortView(e.id, e.title, e.annotation, c.id, c.name," +
+            " e.eventDate, u.id, u.name, e.paid, e.confirmedRequests, e.storedViews)" +
+            " FROM Event e JOIN e.category c JOIN e.initiator u WHERE e.id IN :ids")
+    List<EventShortView> findShortByIdIn(@Param("ids") Collection<Integer> ids);
+
     Optional<Event> findByCategoryId(Integer categoryId);
 
     Optional<Event> findByIdAndInitiatorId(Integer id, Integer initiatorId);
 
+    //Занимает место только если лимит ещё не достигнут: 0 - мест нет
+    @Modifying
+    @Query("UPDATE Event e SET e.confirmedRequests = e.confirmedRequests + 1 WHERE e.id = :id" +
+            " AND (e.participantLimit = 0 OR e.confirmedRequests < e.participantLimit)")
+    int incrementConfirmedRequests(@Param("id") Integer id);
+
+    @Modifying
+    @Query("UPDATE Event e SET e.confirmedRequests = e.confirmedRequests - 1 WHERE e.id = :id" +
+            " AND e.confirmedRequests > 0")
+    int decrementConfirmedRequests(@Param("id") Integer id);
+
+    @Query("SELECT e.id FROM Event e WHERE e.state = :state AND e.id > :afterId ORDER BY e.id")
+    List<Integer> findIdsByState(@Param("state") EventState state, @Param("afterId") Integer afterId,
+                                 Pageable page);
+
+    //Сдвиг счётчика на посчитанное под блокировкой ивента (findForUpdate) число мест
+    @Modifying
+    @Query("UPDATE Event e SET e.confirmedRequests = e.confirmedRequests + :delta WHERE e.id = :id")
+    int addConfirmedRequests(@Param("id") Integer id, @Param("delta") int delta);
+
+    //Блокировка строки ивента на время смены статусов заявок: свободные места не меняются до commit.
+    //Все операции, меняющие и заявки, и счётчик ивента, берут её первой - единый порядок блокировок
+    //(ивент, затем заявки) исключает взаимоблокировку одиночных и пакетных подтверждений
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event e JOIN FETCH e.category JOIN FETCH e.initiator WHERE e.id = :id")
+    Optional<Event> findForUpdate(@Param("id") Integer id);
+
+    @Query("SELECT e.confirmedRequests FROM Event e WHERE e.id = :id")
+    Integer findConfirmedRequestsById(@Param("id") Integer id);
+
+    @Query("SELECT e.id FROM Event e WHERE e.id > :afterId ORDER BY e.id")
+    List<Integer> findIdsAfter(@Param("afterId") Integer afterId, Pageable page);
+
+    //Блокировки берутся в порядке id: две сверки или сверка с пакетной операцией не заблокируют друг друга
+    @Query(value = "SELECT id FROM events WHERE id IN :ids ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Integer> lockByIds(@Param("ids") Collection<Integer> ids);
+
+    //Вызывается только после lockByIds: отдельный запрос видит все заявки, закоммиченные до взятия блокировок
+    @Modifying
+    @Query(value = "UPDATE events SET confirmed_requests = (SELECT COUNT(*) FROM requests r" +
+            " WHERE r.event_id = events.id AND r.status = 'CONFIRMED')" +
+            " WHERE id IN :ids AND confirmed_requests <> (SELECT COUNT(*) FROM requests r" +
+            " WHERE r.event_id = events.id AND r.status = 'CONFIRMED')", nativeQuery = true)
+    int reconcileConfirmedRequests(@Param("ids") Collection<Integer> ids);
+
 }
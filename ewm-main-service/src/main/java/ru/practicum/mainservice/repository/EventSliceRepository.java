@@ -0,0 +1,16 @@
+package ru.practicum.mainservice.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.mainservice.model.Event;
+import ru.practicum.mainservice.model.EventShortView;
+
+public interface EventSliceRepository {
+
+    //Как findAll(spec, page), но без count-запроса: читается size + 1 строк, лишняя говорит о следующей странице
+    Slice<Event> findSlice(Specification<Event> spec, Pageable page);
+
+    //То же для публичного списка, но проекцией только в колонки EventShortDto
+    Slice<EventShortView> findShortSlice(Specification<Event> spec, Pageable page);
+}
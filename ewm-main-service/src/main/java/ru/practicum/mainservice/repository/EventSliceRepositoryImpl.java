@@ -0,0 +1,80 @@
+package ru.practicum.mainservice.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.mainservice.model.Category;
+import ru.practicum.mainservice.model.Event;
+import ru.practicum.mainservice.model.EventShortView;
+import ru.practicum.mainservice.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+@Transactional(readOnly = true)
+public class EventSliceRepositoryImpl implements EventSliceRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public Slice<Event> findSlice(Specification<Event> spec, Pageable page) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Event> query = cb.createQuery(Event.class);
+        Root<Event> root = query.from(Event.class);
+        //Eager-связи одним запросом со страницей, а не отдельным select на каждый ивент
+        root.fetch("category");
+        root.fetch("initiator");
+        query.select(root);
+        return slice(query, root, spec, page);
+    }
+
+    @Override
+    public Slice<EventShortView> findShortSlice(Specification<Event> spec, Pageable page) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<EventShortView> query = cb.createQuery(EventShortView.class);
+        Root<Event> root = query.from(Event.class);
+        Join<Event, Category> category = root.join("category");
+        Join<Event, User> initiator = root.join("initiator");
+        query.select(cb.construct(EventShortView.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("annotation"),
+                category.get("id"),
+                category.get("name"),
+                root.get("eventDate"),
+                initiator.get("id"),
+                initiator.get("name"),
+                root.get("paid"),
+                root.get("confirmedRequests"),
+                root.get("storedViews")));
+        return slice(query, root, spec, page);
+    }
+
+    private <T> Slice<T> slice(CriteriaQuery<T> query, Root<Event> root, Specification<Event> spec, Pageable page) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (page.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(page.getSort(), root, cb));
+        }
+
+        List<T> rows = em.createQuery(query)
+                .setFirstResult((int) page.getOffset())
+                .setMaxResults(page.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > page.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, page.getPageSize()) : rows, page, hasNext);
+    }
+}
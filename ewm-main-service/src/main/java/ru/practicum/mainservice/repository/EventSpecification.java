@@ -2,8 +2,10 @@ package ru.practicum.mainservice.repository;
 
 import org.springframework.data.jpa.domain.Specification;
 import ru.practicum.mainservice.model.Event;
+import ru.practicum.mainservice.util.page.PageCursor;
 import ru.practicum.mainservice.util.status.EventState;
 
+import javax.persistence.criteria.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -20,6 +22,18 @@ public class EventSpecification {
         };
     }
 
+    //Полнотекстовый поиск (функции из EwmPostgreSQLDialect); без явной сортировки выдача ранжируется
+    public static Specification<Event> matchesText(String text, boolean rankResults) {
+        return (root, query, cb) -> {
+            if (rankResults && query.getResultType() != Long.class) {
+                query.orderBy(cb.desc(cb.function("event_text_rank", Double.class,
+                        root.get("annotation"), root.get("description"), cb.literal(text))), cb.asc(root.get("id")));
+            }
+            return cb.isTrue(cb.function("event_text_match", Boolean.class,
+                    root.get("annotation"), root.get("description"), cb.literal(text)));
+        };
+    }
+
     public static Specification<Event> hasAnnotation(String text) {
         return (root, query, cb) -> (cb.like(cb.lower(root.get("annotation")), "%" +
                 text.toLowerCase() + "%"));
@@ -53,4 +67,24 @@ public class EventSpecification {
     public static Specification<Event> hasEnd(LocalDateTime end) {
         return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("eventDate"), end);
     }
+
+    //Строки после курсора в порядке его сортировки: (eventDate, id) или id
+    public static Specification<Event> after(PageCursor cursor) {
+        return (root, query, cb) -> {
+            Path<Integer> id = root.get("id");
+            if (cursor.getKey() == PageCursor.Key.EVENT_DATE) {
+                Path<LocalDateTime> eventDate = root.get("eventDate");
+                return cb.or(cb.greaterThan(eventDate, cursor.getEventDate()),
+                        cb.and(cb.equal(eventDate, cursor.getEventDate()), cb.greaterThan(id, cursor.getId())));
+            }
+            return cb.greaterThan(id, cursor.getId());
+        };
+    }
+
+    //Есть свободные места: лимит не задан или подтверждённых заявок меньше лимита
+    public static Specification<Event> isAvailable() {
+        return (root, query, cb) -> cb.or(
+                cb.equal(root.get("participantLimit"), 0),
+                cb.greaterThan(root.get("participantLimit"), root.get("confirmedRequests")));
+    }
 }
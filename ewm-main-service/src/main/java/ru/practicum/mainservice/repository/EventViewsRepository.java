@@ -0,0 +1,32 @@
+package ru.practicum.mainservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запись синхронизированных просмотров в events.views пакетом JDBC, без загрузки сущностей.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EventViewsRepository {
+
+    //Строки с неизменившимися просмотрами не перезаписываются
+    private static final String UPDATE = "UPDATE events SET views = ? WHERE id = ? AND views <> ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void updateViews(Map<Integer, Long> views) {
+        List<Map.Entry<Integer, Long>> entries = new ArrayList<>(views.entrySet());
+        entries.sort(Map.Entry.comparingByKey());
+        jdbcTemplate.batchUpdate(UPDATE, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getValue());
+            ps.setInt(2, entry.getKey());
+            ps.setLong(3, entry.getValue());
+        });
+    }
+}
@@ -1,25 +1,64 @@
 package ru.practicum.mainservice.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.mainservice.model.Request;
 import ru.practicum.mainservice.util.status.RequestStatus;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RequestRepository extends JpaRepository<Request, Integer> {
 
+    //Связи заявки eager: без графа каждый ивент и пользователь списка догружались бы отдельным запросом
+    @EntityGraph(attributePaths = {"event", "event.category", "event.initiator", "requester"})
     List<Request> findAllByRequesterId(Integer id);
 
     Optional<Request> findByEventIdAndRequesterId(Integer eventId, Integer requesterId);
 
-    List<Request> findAllByEventIdAndStatus(Integer eventId, RequestStatus status);
 
+    @EntityGraph(attributePaths = {"event", "event.category", "event.initiator", "requester"})
     List<Request> findAllByEventIdAndEventInitiatorId(Integer eventId, Integer initiatorId);
 
     Optional<Request> findByIdAndRequesterId(Integer id, Integer requesterId);
 
+    //Смена статуса только из ожидаемого: 0 - заявку уже перевёл параллельный запрос.
+    //Контекст очищается, чтобы прочитанная сущность не перезаписала статус ещё раз при flush
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Request r SET r.status = :status WHERE r.id = :id AND r.status = :expected")
+    int compareAndSetStatus(@Param("id") Integer id, @Param("expected") RequestStatus expected,
+                            @Param("status") RequestStatus status);
 
+    //Только колонки ответа: без гидрации заявок и их eager-связей event/requester
+    @Query("SELECT r.id AS id, r.created AS created, r.requester.id AS requesterId, r.status AS status" +
+            " FROM Request r WHERE r.id IN :ids AND r.event.id = :eventId ORDER BY r.created, r.id")
+    List<RequestRow> findRows(@Param("ids") Collection<Integer> ids, @Param("eventId") Integer eventId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Request r SET r.status = :status WHERE r.id IN :ids AND r.status IN :expected")
+    int updateStatuses(@Param("ids") Collection<Integer> ids, @Param("expected") Collection<RequestStatus> expected,
+                       @Param("status") RequestStatus status);
+
+    //Места закончились - все ожидающие заявки ивента отклоняются одним update
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Request r SET r.status = :rejected WHERE r.event.id = :eventId AND r.status = :pending")
+    int rejectPending(@Param("eventId") Integer eventId, @Param("pending") RequestStatus pending,
+                      @Param("rejected") RequestStatus rejected);
+
+    interface RequestRow {
+        Integer getId();
+
+        LocalDateTime getCreated();
+
+        Integer getRequesterId();
+
+        RequestStatus getStatus();
+    }
 }
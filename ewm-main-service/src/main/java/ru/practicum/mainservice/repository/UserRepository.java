@@ -1,5 +1,7 @@
 package ru.practicum.mainservice.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.mainservice.model.User;
@@ -10,4 +12,6 @@ import java.util.List;
 public interface UserRepository extends JpaRepository<User, Integer> {
 
     List<User> findByIdIn(List<Integer> ids);
+
+    Slice<User> findAllByIdGreaterThan(Integer afterId, Pageable page);
 }
@@ -2,7 +2,8 @@ package ru.practicum.mainservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.mainservice.exception.NotFoundException;
@@ -11,8 +12,10 @@ import ru.practicum.mainservice.model.Category;
 import ru.practicum.mainservice.model.dto.CategoryDto;
 import ru.practicum.mainservice.model.dto.NewCategoryDto;
 import ru.practicum.mainservice.repository.CategoryRepository;
+import ru.practicum.mainservice.util.page.CursorPage;
+import ru.practicum.mainservice.util.page.OffsetPageRequest;
+import ru.practicum.mainservice.util.page.PageCursor;
 
-import java.util.List;
 import java.util.Optional;
 
 @Slf4j
@@ -22,14 +25,17 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepo;
     private final UniversalMapper mapper;
+    private final TotalCountService totalCounts;
 
     @Transactional(readOnly = true)
-    public List<CategoryDto> findAll(Integer from, Integer size) {
-        PageRequest page = PageRequest.of(from / size, size);
-        List<Category> result = categoryRepo.findAll(page).getContent();
+    public CursorPage<CategoryDto> findAll(Integer from, Integer size, String after, boolean withTotal) {
+        OffsetPageRequest page = OffsetPageRequest.of(after == null ? from : 0, size, Sort.by("id"));
+        Slice<Category> result = categoryRepo.findAllByIdGreaterThan(PageCursor.afterId(after), page);
 
-        log.info("Found: {}", result.size());
-        return mapper.toCategoryDtoList(result);
+        log.info("Found: {}", result.getNumberOfElements());
+        return CursorPage.of(result, mapper.toCategoryDtoList(result.getContent()),
+                category -> PageCursor.ofId(category.getId()),
+                withTotal ? totalCounts.count("categories", categoryRepo::count) : null);
     }
 
     @Transactional(readOnly = true)
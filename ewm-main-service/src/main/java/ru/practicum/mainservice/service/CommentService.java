@@ -2,6 +2,9 @@ package ru.practicum.mainservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.mainservice.controller.model.NewCommentDto;
@@ -13,17 +16,28 @@ import ru.practicum.mainservice.model.Comment;
 import ru.practicum.mainservice.model.User;
 import ru.practicum.mainservice.model.dto.CommentDto;
 import ru.practicum.mainservice.repository.CommentRepository;
+import ru.practicum.mainservice.repository.CommentRepository.PreviewRow;
+import ru.practicum.mainservice.util.page.CursorPage;
+import ru.practicum.mainservice.util.page.OffsetPageRequest;
+import ru.practicum.mainservice.util.page.PageCursor;
 import ru.practicum.mainservice.util.status.CommentState;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class CommentService {
+    @Value("${events.comments.page-size:10}")
+    private int previewSize;
 
     private final CommentRepository commentRepo;
 
@@ -36,6 +50,15 @@ public class CommentService {
         return universalMapper.toCommentDto(comment);
     }
 
+    public CursorPage<CommentDto> findByEvent(Integer eventId, String after, Integer size) {
+        Slice<Comment> result = commentRepo.findByEventIdAndStateNotAndIdGreaterThan(eventId, CommentState.REJECTED,
+                PageCursor.afterId(after), OffsetPageRequest.of(0, size, Sort.by("id")));
+        log.debug("Found: {}", result.getNumberOfElements());
+
+        return CursorPage.of(result, universalMapper.toCommentDtoList(result.getContent()),
+                comment -> PageCursor.ofId(comment.getId()));
+    }
+
     public List<CommentDto> findAllByUserId(Integer userId) {
         List<Comment> result = commentRepo.findAllByAuthorId(userId);
         log.debug("Found: {}", result.size());
@@ -100,12 +123,36 @@ public class CommentService {
         return universalMapper.toCommentDto(comment);
     }
 
-    protected List<Comment> findCommentsForEvent(Integer eventId) {
-        return commentRepo.findAllByEventIdInAndStateNot(List.of(eventId), CommentState.REJECTED);
-    }
-
-    protected List<Comment> findCommentsForEvents(List<Integer> eventIds) {
-        return commentRepo.findAllByEventIdInAndStateNot(eventIds, CommentState.REJECTED);
+    /**
+     * Первая страница комментариев (не больше events.comments.page-size) для каждого ивента,
+     * с общим числом и курсором продолжения. Два запроса на любое число ивентов.
+     */
+    protected Map<Integer, CursorPage<Comment>> findPreviews(Collection<Integer> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Map.of();
+        }
+        List<PreviewRow> rows = commentRepo.findPreviewRows(eventIds, CommentState.REJECTED.name(), previewSize);
+        if (rows.isEmpty()) {
+            return Map.of();
+        }
+        Map<Integer, Long> totals = rows.stream()
+                .collect(Collectors.toMap(PreviewRow::getEventId, PreviewRow::getTotal, (a, b) -> a));
+        List<Comment> comments = commentRepo.findWithAuthorByIdIn(
+                rows.stream().map(PreviewRow::getId).collect(Collectors.toList()));
+
+        Map<Integer, List<Comment>> byEvent = new HashMap<>();
+        for (Comment comment : comments) {
+            byEvent.computeIfAbsent(comment.getEventId(), k -> new ArrayList<>()).add(comment);
+        }
+        Map<Integer, CursorPage<Comment>> previews = new HashMap<>();
+        byEvent.forEach((eventId, page) -> {
+            long total = totals.get(eventId);
+            String nextCursor = total > page.size()
+                    ? PageCursor.ofId(page.get(page.size() - 1).getId()).encode()
+                    : null;
+            previews.put(eventId, new CursorPage<>(page, nextCursor, total));
+        });
+        return previews;
     }
 
     private Comment findComment(Integer id) {
@@ -2,7 +2,8 @@ package ru.practicum.mainservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.mainservice.controller.model.NewCompilationDto;
@@ -10,12 +11,22 @@ import ru.practicum.mainservice.exception.NotFoundException;
 import ru.practicum.mainservice.mapper.UniversalMapper;
 import ru.practicum.mainservice.model.Compilation;
 import ru.practicum.mainservice.model.Event;
+import ru.practicum.mainservice.model.EventShortView;
 import ru.practicum.mainservice.model.dto.CompilationDto;
+import ru.practicum.mainservice.model.dto.EventShortDto;
 import ru.practicum.mainservice.repository.CompilationRepository;
 import ru.practicum.mainservice.repository.EventRepository;
+import ru.practicum.mainservice.util.page.CursorPage;
+import ru.practicum.mainservice.util.page.OffsetPageRequest;
+import ru.practicum.mainservice.util.page.PageCursor;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -25,19 +36,29 @@ public class CompilationService {
     public final CompilationRepository compilationRepo;
     private final UniversalMapper universalMapper;
     private final EventRepository eventRepo;
+    private final TotalCountService totalCounts;
 
     @Transactional(readOnly = true)
-    public List<CompilationDto> findAll(Boolean pinned, Integer from, Integer size) {
-        PageRequest page = PageRequest.of(from / size, size);
-        List<Compilation> result;
+    public CursorPage<CompilationDto> findAll(Boolean pinned, Integer from, Integer size, String after,
+                                              boolean withTotal) {
+        OffsetPageRequest page = OffsetPageRequest.of(after == null ? from : 0, size, Sort.by("id"));
+        int afterId = PageCursor.afterId(after);
+        Slice<Compilation> result;
         if (pinned == null) {
-            result = compilationRepo.findAll(page).getContent();
+            result = compilationRepo.findAllByIdGreaterThan(afterId, page);
         } else {
-            result = compilationRepo.findAllByPinned(pinned, page).getContent();
+            result = compilationRepo.findAllByPinnedAndIdGreaterThan(pinned, afterId, page);
         }
 
-        log.info("Found: {}", result.size());
-        return universalMapper.toDtoList(result);
+        log.info("Found: {}", result.getNumberOfElements());
+        Long total = null;
+        if (withTotal) {
+            total = pinned == null
+                    ? totalCounts.count("compilations", compilationRepo::count)
+                    : totalCounts.count("compilations:pinned=" + pinned, () -> compilationRepo.countByPinned(pinned));
+        }
+        return CursorPage.of(result, toDtoList(result.getContent()),
+                compilation -> PageCursor.ofId(compilation.getId()), total);
     }
 
     @Transactional(readOnly = true)
@@ -45,7 +66,7 @@ public class CompilationService {
         Compilation result = findCompilation(id);
 
         log.info("Send compilation...");
-        return universalMapper.toDto(result);
+        return toDtoList(List.of(result)).get(0);
     }
 
     @Transactional
@@ -96,6 +117,42 @@ public class CompilationService {
         log.info("Compilation pinned.");
     }
 
+    //Постоянное число запросов на страницу: связи подборок с ивентами и сами ивенты (проекцией) - по одному запросу
+    private List<CompilationDto> toDtoList(List<Compilation> compilations) {
+        if (compilations.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (Compilation compilation : compilations) {
+            ids.add(compilation.getId());
+        }
+        List<CompilationRepository.EventLink> links = compilationRepo.findEventLinks(ids);
+
+        Set<Integer> eventIds = new HashSet<>();
+        for (CompilationRepository.EventLink link : links) {
+            eventIds.add(link.getEventId());
+        }
+        Map<Integer, EventShortDto> events = new HashMap<>();
+        if (!eventIds.isEmpty()) {
+            for (EventShortView view : eventRepo.findShortByIdIn(eventIds)) {
+                events.put(view.getId(), universalMapper.toShortDto(view));
+            }
+        }
+
+        Map<Integer, Set<EventShortDto>> eventsByCompilation = new HashMap<>();
+        for (CompilationRepository.EventLink link : links) {
+            eventsByCompilation.computeIfAbsent(link.getCompilationId(), id -> new HashSet<>())
+                    .add(events.get(link.getEventId()));
+        }
+
+        List<CompilationDto> result = new ArrayList<>();
+        for (Compilation compilation : compilations) {
+            result.add(universalMapper.toDto(compilation,
+                    eventsByCompilation.getOrDefault(compilation.getId(), new HashSet<>())));
+        }
+        return result;
+    }
+
     private Compilation findCompilation(Integer id) {
         Optional<Compilation> compilation = compilationRepo.findById(id);
         if (compilation.isEmpty()) {
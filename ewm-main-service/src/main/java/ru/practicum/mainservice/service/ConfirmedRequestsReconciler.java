@@ -0,0 +1,57 @@
+package ru.practicum.mainservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.mainservice.repository.EventRepository;
+
+import java.util.List;
+
+/**
+ * Периодически сверяет events.confirmed_requests с числом подтверждённых заявок
+ * и исправляет расхождения (ручные правки в базе, прерванные транзакции и т.п.).
+ * <p>
+ * Пересчёт одним UPDATE с подзапросом терял параллельные подтверждения: дождавшись блокировки строки,
+ * PostgreSQL применял COUNT, посчитанный по снимку до чужого commit, и затирал счётчик меньшим значением.
+ * Поэтому строки ивентов сначала блокируются (в порядке id, порциями в отдельных транзакциях),
+ * и только затем пересчитываются следующим запросом.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConfirmedRequestsReconciler {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final EventRepository eventRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    @Scheduled(initialDelayString = "${events.confirmed-requests.reconcile-interval:600000}",
+            fixedDelayString = "${events.confirmed-requests.reconcile-interval:600000}")
+    public void reconcile() {
+        int repaired = 0;
+        List<Integer> ids;
+        int afterId = 0;
+        do {
+            ids = eventRepo.findIdsAfter(afterId, PageRequest.of(0, CHUNK_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<Integer> chunk = ids;
+            repaired += transactionTemplate.execute(status -> {
+                eventRepo.lockByIds(chunk);
+                return eventRepo.reconcileConfirmedRequests(chunk);
+            });
+            afterId = ids.get(ids.size() - 1);
+        } while (ids.size() == CHUNK_SIZE);
+
+        if (repaired > 0) {
+            log.warn("Confirmed requests counter repaired for {} events.", repaired);
+        } else {
+            log.debug("Confirmed requests counters are consistent.");
+        }
+    }
+}
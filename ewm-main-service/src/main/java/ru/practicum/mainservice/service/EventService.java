@@ -1,16 +1,14 @@
 package ru.practicum.mainservice.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestClientException;
 import ru.practicum.mainservice.controller.model.AdminGetEventRequest;
 import ru.practicum.mainservice.controller.model.AdminUpdateEventRequest;
 import ru.practicum.mainservice.controller.model.GetEventsRequest;
@@ -23,17 +21,26 @@ import ru.practicum.mainservice.mapper.UniversalMapper;
 import ru.practicum.mainservice.model.Category;
 import ru.practicum.mainservice.model.Comment;
 import ru.practicum.mainservice.model.Event;
+import ru.practicum.mainservice.model.EventShortView;
 import ru.practicum.mainservice.model.User;
 import ru.practicum.mainservice.model.dto.*;
 import ru.practicum.mainservice.repository.CategoryRepository;
 import ru.practicum.mainservice.repository.EventRepository;
 import ru.practicum.mainservice.repository.UserRepository;
+import ru.practicum.mainservice.util.EnrichmentMode;
+import ru.practicum.mainservice.util.EventSearchMode;
+import ru.practicum.mainservice.util.page.CursorPage;
+import ru.practicum.mainservice.util.page.OffsetPageRequest;
+import ru.practicum.mainservice.util.page.PageCursor;
 import ru.practicum.mainservice.util.status.EventState;
-import ru.practicum.mainservice.util.api.StatsClient;
+import ru.practicum.mainservice.util.api.HitsBuffer;
 
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.springframework.data.jpa.domain.Specification.where;
@@ -47,76 +54,120 @@ import static ru.practicum.mainservice.util.DateFormatter.FORMATTER;
 public class EventService {
     @Value("${this-app.name}")
     private String appName;
+    @Value("${events.search.mode:LIKE}")
+    private EventSearchMode searchMode;
+    @Value("${events.enrichment.mode:PARALLEL}")
+    private EnrichmentMode enrichmentMode;
+    @Value("${events.enrichment.deadline:1000}")
+    private long enrichmentDeadlineMs;
 
     private final EventRepository eventRepo;
-    private final StatsClient statsClient;
+    private final ViewsService viewsService;
+    private final HitsBuffer hitsBuffer;
     private final UniversalMapper universalMapper;
     private final UserRepository userRepo;
     private final CategoryRepository categoryRepo;
     private final CommentService commentService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
-    public List<EventShortDto> getAll(GetEventsRequest req) {
+    private final TotalCountService totalCounts;
+
+    /*
+     * Асинхронный ответ: выборка, хит и total - в потоке запроса, а страница собирается, когда придут просмотры
+     * (или истечёт events.enrichment.deadline), и поток сервлета stats-service не ждёт. Транзакции нет,
+     * open-in-view для этого пути отключён (OpenInViewConfig): соединение с БД не удерживается на время ожидания.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<CursorPage<EventShortDto>> getAll(GetEventsRequest req) {
         Specification<Event> spec = createSpecForSearchAllEvents(req);
         log.debug("Spec created.");
-        PageRequest page;
-        boolean viewsSort = false;
+        Sort sort;
+        PageCursor.Key cursorKey;
 
         if (req.getSort() != null) {
-            Sort sort;
             if (req.getSort().equals("EVENT_DATE")) {
-                sort = Sort.by("eventDate");
+                sort = Sort.by("eventDate").and(Sort.by("id"));
+                cursorKey = PageCursor.Key.EVENT_DATE;
             } else if (req.getSort().equals("VIEWS")) {
-                sort = Sort.by("id");
-                viewsSort = true;
+                //Сортировка по синхронизируемой колонке views, чтобы порядок был общим для всех страниц.
+                //Только from/size: views меняются между запросами страниц, курсор по ним был бы неустойчивым
+                sort = Sort.by(Sort.Direction.DESC, "storedViews").and(Sort.by("id"));
+                cursorKey = null;
             } else {
                 throw new ApiException("Sort " + req.getSort() + " not allowed");
             }
-            page = PageRequest.of((req.getFrom() / req.getSize()), req.getSize(), sort);
+        } else if (req.getText() != null && searchMode == EventSearchMode.FULL_TEXT) {
+            //Ранжированная выдача упорядочена по релевантности, ключа для курсора у неё тоже нет
+            sort = Sort.unsorted();
+            cursorKey = null;
         } else {
-            page = PageRequest.of((req.getFrom() / req.getSize()), req.getSize());
+            sort = Sort.by("id");
+            cursorKey = PageCursor.Key.ID;
         }
 
-        log.debug("Page created: {}, {}, {}", page.getPageNumber(), page.getPageSize(), page.getSort());
+        if (req.getAfter() != null) {
+            if (cursorKey == null) {
+                throw new BadRequestException("Cursor pagination is not available for this sort, use from/size.");
+            }
+            spec = spec.and(after(PageCursor.decode(req.getAfter(), cursorKey)));
+        }
+        OffsetPageRequest page = OffsetPageRequest.of(req.getAfter() == null ? req.getFrom() : 0, req.getSize(), sort);
+        log.debug("Page created: {}", page);
 
-        List<Event> result = eventRepo.findAll(spec, page).getContent();
+        //Проекция только в колонки EventShortDto: сущности Event для публичного списка не нужны
+        Slice<EventShortView> slice = eventRepo.findShortSlice(spec, page);
+        List<EventShortView> result = slice.getContent();
         log.info("Found: {}", result.size());
 
-        //Получение статистики по просмотрам ивентов
-        setStatsToEvents(result);
+        //Просмотры загружаются в пуле stats-клиента, пока здесь отправляется хит и считается total
+        CompletableFuture<Map<Integer, Long>> views = requestStats(
+                result.stream().map(EventShortView::getId).collect(Collectors.toList()));
 
         sentHit(req.getInfo());
 
-        if (viewsSort) {
-            result = result.stream().sorted(Comparator.comparingLong(Event::getViews).reversed())
-                    .collect(Collectors.toList());
-        }
-        if (req.getOnlyAvailable().equals(Boolean.TRUE)) {
-            result = result.stream().filter(e -> e.getParticipantLimit().equals(0)
-                    || e.getParticipantLimit() > e.getConfirmedRequests()).collect(Collectors.toList());
-        }
+        Long total = req.isWithTotal()
+                ? totalCounts.count("events:" + filterKey(req), () -> eventRepo.count(createSpecForSearchAllEvents(req)))
+                : null;
 
-        return universalMapper.toShortDtoList(result);
+        return viewsService.recover(views).thenApply(loaded -> {
+            setStatsToViews(result, loaded);
+            return CursorPage.of(slice, universalMapper.toShortDtoListFromViews(result),
+                    cursorKey == null ? null : event -> cursorOf(event, cursorKey), total);
+        });
     }
 
-    public EventFullDto getById(Integer id, HttpServletRequest req) {
+    //Асинхронный, как и getAll: ответ дописывается просмотрами без участия потока запроса.
+    //Транзакция только на чтение ивента и превью комментариев (findPreviews protected и своей транзакции
+    //не получает) и закрывается при возврате future, до прихода просмотров
+    @Transactional(readOnly = true)
+    public CompletableFuture<EventFullDto> getById(Integer id, HttpServletRequest req) {
+        //Сначала проверка существования и публикации: на 404 не тратятся ни stats-service, ни комментарии.
+        //Просмотры затем загружаются параллельно с чтением комментариев
         Event event = findEvent(id);
+        if (event.getState() != EventState.PUBLISHED) {
+            throw new NotFoundException("Event with id=" + id + " not found.");
+        }
         log.debug("event - confirmedRequests = {}", event.getConfirmedRequests());
+        CompletableFuture<Map<Integer, Long>> views = requestStats(List.of(id));
 
-        setStatsToEvent(event);
-        setCommentsToEvent(event);
+        CompletableFuture<Void> enriched = enrichAsync(List.of(event), views);
         sentHit(req);
-        return universalMapper.toFullDto(event);
+        return enriched.thenApply(ignored -> universalMapper.toFullDto(event));
     }
 
-    public List<EventShortDto> getByUser(Integer id, Integer from, Integer size) {
+    public CursorPage<EventShortDto> getByUser(Integer id, Integer from, Integer size, String after,
+                                               boolean withTotal) {
         User initiator = findUser(id);
 
-        PageRequest page = PageRequest.of(from / size, size);
-        List<Event> result = eventRepo.findAllByInitiator(initiator, page).getContent();
-        log.info("Found events = {}", result.size());
-        setStatsToEvents(result);
-        return universalMapper.toShortDtoList(result);
+        OffsetPageRequest page = OffsetPageRequest.of(after == null ? from : 0, size, Sort.by("id"));
+        Slice<Event> result = eventRepo.findAllByInitiatorAndIdGreaterThan(initiator, PageCursor.afterId(after), page);
+        log.info("Found events = {}", result.getNumberOfElements());
+        CompletableFuture<Map<Integer, Long>> views = requestStats(idsOf(result.getContent()));
+        Long total = withTotal
+                ? totalCounts.count("events:initiator=" + id, () -> eventRepo.countByInitiator(initiator))
+                : null;
+        setStatsToEvents(result.getContent(), views);
+
+        return CursorPage.of(result, universalMapper.toShortDtoList(result.getContent()),
+                event -> PageCursor.ofId(event.getId()), total);
     }
 
     @Transactional
@@ -143,8 +194,7 @@ public class EventService {
         updateEvent(event, universalMapper.toUpdateUtilDto(req));
 
         log.info("Updated successfully.");
-        setStatsToEvent(event);
-        setCommentsToEvent(event);
+        enrich(event);
         return universalMapper.toFullDto(event);
     }
 
@@ -182,21 +232,33 @@ public class EventService {
         }
         event.setState(EventState.CANCELED);
         log.info("Event with id={} cancelled successfully.", eventId);
-        setStatsToEvent(event);
-        setCommentsToEvent(event);
+        enrich(event);
         return universalMapper.toFullDto(event);
     }
 
-    public List<EventFullDto> getByAdmin(AdminGetEventRequest req) {
+    public CursorPage<EventFullDto> getByAdmin(AdminGetEventRequest req) {
         Specification<Event> spec = createSpecForSearchAllEvents(req);
+        if (req.getAfter() != null) {
+            spec = spec.and(after(PageCursor.decode(req.getAfter(), PageCursor.Key.ID)));
+        }
         log.debug("Spec for admin created.");
-        PageRequest page = PageRequest.of((req.getFrom() / req.getSize()), req.getSize());
-        log.debug("Page created: {}, {}", page.getPageNumber(), page.getPageSize());
+        OffsetPageRequest page = OffsetPageRequest.of(req.getAfter() == null ? req.getFrom() : 0, req.getSize(),
+                Sort.by("id"));
+        log.debug("Page created: {}", page);
 
-        List<Event> result = eventRepo.findAll(spec, page).getContent();
+        Slice<Event> slice = eventRepo.findSlice(spec, page);
+        List<Event> result = slice.getContent();
         log.info("Found: {}", result.size());
-        setStatsToEvents(result);
-        return universalMapper.toFullDtoList(setCommentsToEvents(result));
+        CompletableFuture<Map<Integer, Long>> views = requestStats(idsOf(result));
+        Long total = null;
+        if (req.isWithTotal()) {
+            Specification<Event> filter = createSpecForSearchAllEvents(req);
+            total = totalCounts.count("admin-events:" + filterKey(req), () -> eventRepo.count(filter));
+        }
+        enrich(result, views);
+
+        return CursorPage.of(slice, universalMapper.toFullDtoList(result), event -> PageCursor.ofId(event.getId()),
+                total);
     }
 
     @Transactional
@@ -210,8 +272,7 @@ public class EventService {
         updateEvent(event, updateRequest);
 
         log.info("Updated successfully.");
-        setStatsToEvent(event);
-        setCommentsToEvent(event);
+        enrich(event);
         return universalMapper.toFullDto(event);
     }
 
@@ -230,8 +291,7 @@ public class EventService {
         event.setState(EventState.PUBLISHED);
         event.setPublishedOn(ts);
         log.info("Event id={} published successfully at {}.", eventId, ts);
-        setStatsToEvent(event);
-        setCommentsToEvent(event);
+        enrich(event);
         return universalMapper.toFullDto(event);
     }
 
@@ -244,15 +304,18 @@ public class EventService {
 
         event.setState(EventState.CANCELED);
         log.info("Event id={} cancelled.", eventId);
-        setStatsToEvent(event);
-        setCommentsToEvent(event);
+        enrich(event);
         return universalMapper.toFullDto(event);
     }
 
     private Specification<Event> createSpecForSearchAllEvents(GetEventsRequest req) {
         Specification<Event> spec = where(null); //ни на что не влияющая заглушка, подсмотрел на стаковерфлоу
         if (req.getText() != null) {
-            spec = spec.and(hasText(req.getText()));
+            if (searchMode == EventSearchMode.FULL_TEXT) {
+                spec = spec.and(matchesText(req.getText(), req.getSort() == null));
+            } else {
+                spec = spec.and(hasText(req.getText()));
+            }
         }
         if (req.getCategories() != null && !req.getCategories().isEmpty()) {
             spec = spec.and(hasCategories(req.getCategories()));
@@ -266,6 +329,9 @@ public class EventService {
         if (req.getRangeEnd() != null) {
             spec = spec.and(hasEnd(req.getRangeEnd()));
         }
+        if (Boolean.TRUE.equals(req.getOnlyAvailable())) {
+            spec = spec.and(isAvailable());
+        }
         return spec;
     }
 
@@ -293,6 +359,25 @@ public class EventService {
         return spec;
     }
 
+    //Ключ кэша total: только фильтры, без пагинации и сортировки
+    private static String filterKey(GetEventsRequest req) {
+        return String.join("|", String.valueOf(req.getText()), String.valueOf(req.getCategories()),
+                String.valueOf(req.getPaid()), String.valueOf(req.getRangeStart()), String.valueOf(req.getRangeEnd()),
+                String.valueOf(req.getOnlyAvailable()));
+    }
+
+    private static String filterKey(AdminGetEventRequest req) {
+        return String.join("|", String.valueOf(req.getUsers()), String.valueOf(req.getStates()),
+                String.valueOf(req.getCategories()), String.valueOf(req.getRangeStart()),
+                String.valueOf(req.getRangeEnd()));
+    }
+
+    private static PageCursor cursorOf(EventShortView event, PageCursor.Key key) {
+        return key == PageCursor.Key.EVENT_DATE
+                ? PageCursor.ofEventDate(event.getEventDate(), event.getId())
+                : PageCursor.ofId(event.getId());
+    }
+
     private User findUser(Integer id) {
         Optional<User> user = userRepo.findById(id);
         if (user.isEmpty()) {
@@ -334,91 +419,107 @@ public class EventService {
     }
 
     private void sentHit(HttpServletRequest req) {
-        try {
-            HitDto hit = new HitDto(0, appName, req.getRequestURI(),
-                    req.getRemoteAddr(), LocalDateTime.now().format(FORMATTER));
-            statsClient.makeHit(hit);
-            log.info("Send hit to stats-server: {}", hit);
-        } catch (RestClientException e) {
-            log.error("Send statistic failed - catch RestClientException: {}", e.getMessage());
-        }
+        HitDto hit = new HitDto(0, appName, req.getRequestURI(),
+                req.getRemoteAddr(), LocalDateTime.now().format(FORMATTER));
+        hitsBuffer.add(hit);
+        log.debug("Hit queued for stats-server: {}", hit);
     }
 
-    private void setStatsToEvents(List<Event> events) {
-        List<Integer> eventIds = new ArrayList<>();
-        for (Event event : events) {
-            eventIds.add(event.getId());
-        }
-        log.debug("Events ids size={}", eventIds.size());
-        Map<Integer, Long> views = getStatsInfo(eventIds);
-
-        for (Event event : events) {
-            if (views.get(event.getId()) != null) {
-                event.setViews(views.get(event.getId()));
+    //Без ответа stats-service - последние синхронизированные просмотры (EventViewsSynchronizer) с пометкой viewsStale
+    //Ивенту без загруженного значения (отказ или частичный ответ из кэша) - последние известные просмотры
+    private void setStatsToViews(List<EventShortView> events, Optional<Map<Integer, Long>> views) {
+        for (EventShortView event : events) {
+            Long loaded = views.map(map -> map.get(event.getId())).orElse(null);
+            if (loaded != null) {
+                event.setViews(loaded);
             } else {
-                event.setViews(0L);
+                event.setViews(lastKnownViews(event.getStoredViews()));
+                event.setViewsStale(true);
             }
         }
     }
 
-    private void setStatsToEvent(Event event) {
-        Map<Integer, Long> views = getStatsInfo(List.of(event.getId()));
-        if (views.get(event.getId()) != null) {
-            event.setViews(views.get(event.getId()));
-        } else {
-            event.setViews(0L);
-        }
+    private void setStatsToEvents(List<Event> events, CompletableFuture<Map<Integer, Long>> request) {
+        setStatsToEvents(events, viewsService.await(request));
     }
 
-    private void setCommentsToEvent(Event event) {
-        event.setComments(getComments(event.getId()));
+    private void setStatsToEvents(List<Event> events, Optional<Map<Integer, Long>> views) {
+        for (Event event : events) {
+            Long loaded = views.map(map -> map.get(event.getId())).orElse(null);
+            if (loaded != null) {
+                event.setViews(loaded);
+            } else {
+                event.setViews(lastKnownViews(event.getStoredViews()));
+                event.setViewsStale(true);
+            }
+        }
     }
 
-    private List<Event> setCommentsToEvents(List<Event> events) {
-        List<Integer> eventIds = events.stream().map(Event::getId).collect(Collectors.toList());
-        List<Comment> allComments = getComments(eventIds);
-        Map<Integer, List<Comment>> commentsMap = new HashMap<>();
-        for (Comment comment : allComments) {
-            List<Comment> comments = commentsMap
-                    .computeIfAbsent(comment.getEventId(), k -> new ArrayList<>());
-            comments.add(comment);
-        }
+    private static long lastKnownViews(Long storedViews) {
+        return storedViews != null ? storedViews : 0L;
+    }
 
-        return events.stream().peek(event -> {
-            event.setComments(commentsMap.getOrDefault(event.getId(), new ArrayList<>()));
-        }).collect(Collectors.toList());
+    private void setStatsToEvent(Event event) {
+        setStatsToEvents(List.of(event), requestStats(List.of(event.getId())));
     }
 
-    private List<Comment> getComments(Integer eventId) {
-        return commentService.findCommentsForEvent(eventId);
+    private void enrich(Event event) {
+        enrich(List.of(event), requestStats(List.of(event.getId())));
     }
 
-    private List<Comment> getComments(List<Integer> eventIds) {
-        return commentService.findCommentsForEvents(eventIds);
+    /**
+     * Просмотры загружаются в пуле StatsBulkhead, первая страница комментариев читается в текущем потоке -
+     * в его транзакции и на его соединении с БД. confirmedRequests уже в строке ивента и отдельной загрузки не требует.
+     */
+    private void enrich(List<Event> events, CompletableFuture<Map<Integer, Long>> views) {
+        if (enrichmentMode == EnrichmentMode.SEQUENTIAL) {
+            setStatsToEvents(events, views);
+            setCommentsToEvents(events);
+        } else {
+            setCommentsToEvents(events);
+            setStatsToEvents(events, views);
+        }
     }
 
-    private Map<Integer, Long> getStatsInfo(List<Integer> ids) {
-        List<String> uris = new ArrayList<>();
-        for (Integer id : ids) {
-            uris.add("/events/" + id);
+    //Вариант enrich без ожидания: комментарии читаются сразу, просмотры проставляются по готовности future
+    private CompletableFuture<Void> enrichAsync(List<Event> events, CompletableFuture<Map<Integer, Long>> views) {
+        if (enrichmentMode == EnrichmentMode.SEQUENTIAL) {
+            enrich(events, views);
+            return CompletableFuture.completedFuture(null);
         }
-        log.debug("Send request for ids size={}", uris.size());
-        List<ViewStatsDto> listViews = objectMapper
-                .convertValue(statsClient.getStatsInfo(uris).getBody(), new TypeReference<List<ViewStatsDto>>() {
-                });
-        log.debug(listViews.toString());
+        setCommentsToEvents(events);
+        return viewsService.recover(views).thenAccept(loaded -> setStatsToEvents(events, loaded));
+    }
 
-        Map<Integer, Long> views = new HashMap<>();
-        for (ViewStatsDto entry : listViews) {
-            String[] line = entry.getUri().split("/");
-            if (line.length > 2) {
-                Integer id = Integer.parseInt(line[2]);
-                views.put(id, entry.getHits());
-                log.debug("Put in viewsMap: key={} value={}", id, entry.getHits());
+    private void setCommentsToEvents(List<Event> events) {
+        Map<Integer, CursorPage<Comment>> previews = commentService.findPreviews(idsOf(events));
+        for (Event event : events) {
+            CursorPage<Comment> preview = previews.get(event.getId());
+            if (preview != null) {
+                event.setComments(preview.getContent());
+                event.setCommentsCount(preview.getTotal());
+                event.setCommentsNextCursor(preview.getNextCursor());
+            } else {
+                event.setComments(new ArrayList<>());
+                event.setCommentsCount(0L);
             }
         }
+    }
+
+    /**
+     * Загрузка стартует сразу, результат забирают setStatsTo* через ViewsService.await. Срок events.enrichment.deadline
+     * отсчитывается от этого момента; по его истечении ответ уходит с последними известными просмотрами.
+     * orTimeout ставится на копию: сам future из кэша просмотров общий для параллельных запросов.
+     */
+    private CompletableFuture<Map<Integer, Long>> requestStats(List<Integer> ids) {
+        log.debug("Request views for ids size={}", ids.size());
+        return viewsService.getViewsAsync(ids)
+                .thenApply(Function.identity())
+                .orTimeout(enrichmentDeadlineMs, TimeUnit.MILLISECONDS);
+    }
 
-        return views;
+    private static List<Integer> idsOf(List<Event> events) {
+        return events.stream().map(Event::getId).collect(Collectors.toList());
     }
 
     private void updateEvent(Event event, EventUpdateUtilDto req) {
@@ -0,0 +1,66 @@
+package ru.practicum.mainservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.mainservice.repository.EventRepository;
+import ru.practicum.mainservice.repository.EventViewsRepository;
+import ru.practicum.mainservice.util.api.StatsClient;
+import ru.practicum.mainservice.util.status.EventState;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Периодически переносит просмотры опубликованных ивентов из stats-service в events.views.
+ * По этой колонке работает сортировка VIEWS: так порядок общий для всех страниц выдачи.
+ */
+@Slf4j
+@Service
+public class EventViewsSynchronizer {
+
+    private final EventRepository eventRepo;
+    private final EventViewsRepository viewsRepo;
+    private final StatsClient statsClient;
+    private final int chunkSize;
+
+    public EventViewsSynchronizer(EventRepository eventRepo,
+                                  EventViewsRepository viewsRepo,
+                                  StatsClient statsClient,
+                                  @Value("${events.views.sync-chunk-size:1000}") int chunkSize) {
+        this.eventRepo = eventRepo;
+        this.viewsRepo = viewsRepo;
+        this.statsClient = statsClient;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(initialDelayString = "${events.views.sync-interval:60000}",
+            fixedDelayString = "${events.views.sync-interval:60000}")
+    public void synchronize() {
+        int afterId = 0;
+        int synced = 0;
+        try {
+            List<Integer> ids = eventRepo.findIdsByState(EventState.PUBLISHED, afterId, PageRequest.of(0, chunkSize));
+            while (!ids.isEmpty()) {
+                Map<Integer, Long> loaded = statsClient.getEventViews(ids);
+                Map<Integer, Long> views = new HashMap<>();
+                for (Integer id : ids) {
+                    views.put(id, loaded.getOrDefault(id, 0L));
+                }
+                viewsRepo.updateViews(views);
+                synced += ids.size();
+
+                afterId = ids.get(ids.size() - 1);
+                ids = eventRepo.findIdsByState(EventState.PUBLISHED, afterId, PageRequest.of(0, chunkSize));
+            }
+            log.debug("Views synchronized for {} events.", synced);
+        } catch (RuntimeException e) {
+            //Не только ошибки HTTP: сбой записи views в БД тоже прерывает лишь текущий проход,
+            //следующий запуск начнёт заново, уже записанные порции останутся
+            log.warn("Views synchronization stopped after {} events: {}", synced, e.getMessage());
+        }
+    }
+}
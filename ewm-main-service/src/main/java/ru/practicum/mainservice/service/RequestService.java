@@ -2,15 +2,20 @@ package ru.practicum.mainservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.mainservice.controller.model.EventRequestStatusUpdateRequest;
 import ru.practicum.mainservice.exception.BadRequestException;
+import ru.practicum.mainservice.exception.ConflictException;
 import ru.practicum.mainservice.exception.NotFoundException;
 import ru.practicum.mainservice.exception.RestrictedException;
 import ru.practicum.mainservice.mapper.UniversalMapper;
 import ru.practicum.mainservice.model.Event;
 import ru.practicum.mainservice.model.Request;
 import ru.practicum.mainservice.model.User;
+import ru.practicum.mainservice.model.dto.EventRequestStatusUpdateResult;
 import ru.practicum.mainservice.model.dto.ParticipationRequestDto;
 import ru.practicum.mainservice.repository.EventRepository;
 import ru.practicum.mainservice.repository.RequestRepository;
@@ -18,15 +23,24 @@ import ru.practicum.mainservice.repository.UserRepository;
 import ru.practicum.mainservice.util.status.EventState;
 import ru.practicum.mainservice.util.status.RequestStatus;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RequestService {
 
+    //Уникальный индекс из V4__requests_unique_requester.sql
+    private static final String DUPLICATE_REQUEST_CONSTRAINT = "uq_requests_event_requester";
+
     private final RequestRepository requestRepo;
     private final UserRepository userRepo;
     private final EventRepository eventRepo;
@@ -42,11 +56,6 @@ public class RequestService {
 
     @Transactional
     public ParticipationRequestDto create(Integer userId, Integer eventId) {
-        Optional<Request> check = requestRepo.findByEventIdAndRequesterId(eventId, userId);
-        if (check.isPresent()) {
-            throw new RestrictedException("You are already sent request for this event.");
-        }
-
         Event event = findEvent(eventId);
         //Проверка запроса
         if (event.getInitiator().getId().equals(userId)) {
@@ -69,10 +78,21 @@ public class RequestService {
         if (event.getRequestModeration().equals(Boolean.TRUE)) {
             request.setStatus(RequestStatus.PENDING);
         } else {
+            takeSeat(eventId);
             request.setStatus(RequestStatus.CONFIRMED);
         }
 
-        Request result = requestRepo.save(request);
+        //Повторную заявку отсекает уникальный индекс (event_id, requester_id), а не чтение перед вставкой:
+        //при ошибке транзакция откатывается вместе с занятым местом
+        Request result;
+        try {
+            result = requestRepo.saveAndFlush(request);
+        } catch (DataIntegrityViolationException e) {
+            if (!violates(e, DUPLICATE_REQUEST_CONSTRAINT)) {
+                throw e;
+            }
+            throw new RestrictedException("You are already sent request for this event.");
+        }
         log.info("Request created successfully.");
 
         return universalMapper.toRequestDto(result);
@@ -85,6 +105,12 @@ public class RequestService {
             throw new RestrictedException("Request if already cancelled.");
         }
 
+        //Сначала строка ивента, затем заявка - тот же порядок блокировок, что у подтверждений (см. findForUpdate)
+        eventRepo.lockByIds(List.of(request.getEvent().getId()));
+        changeStatus(request, RequestStatus.CANCELED);
+        if (request.getStatus().equals(RequestStatus.CONFIRMED)) {
+            eventRepo.decrementConfirmedRequests(request.getEvent().getId());
+        }
         request.setStatus(RequestStatus.CANCELED);
         log.info("Request cancelled successfully.");
 
@@ -112,14 +138,78 @@ public class RequestService {
             throw new BadRequestException("This request already approved or cancelled.");
         }
 
+        changeStatus(request, RequestStatus.CONFIRMED);
+        takeSeat(eventId);
         request.setStatus(RequestStatus.CONFIRMED);
-        if (event.getConfirmedRequests().equals(event.getParticipantLimit() + 1)) {
-            automaticRejectRequests(eventId);
+        //Последнее место занято - остальные заявки отклоняются
+        if (eventRepo.findConfirmedRequestsById(eventId) >= event.getParticipantLimit()) {
+            rejectPending(eventId);
         }
 
         return universalMapper.toRequestDto(request);
     }
 
+    /**
+     * Пакетное подтверждение или отклонение заявок: постоянное число запросов к БД независимо от числа заявок.
+     * Ивент блокируется на время операции, поэтому свободные места считаются один раз и не превышаются;
+     * не поместившиеся в лимит заявки отклоняются вместе с остальными ожидающими.
+     */
+    @Transactional
+    public EventRequestStatusUpdateResult updateStatuses(Integer userId, Integer eventId,
+                                                         EventRequestStatusUpdateRequest req) {
+        Event event = baseRequestCheck(userId, eventId);
+
+        Set<Integer> ids = new HashSet<>(req.getRequestIds());
+        List<RequestRepository.RequestRow> rows = requestRepo.findRows(ids, eventId);
+        if (rows.size() != ids.size()) {
+            throw new NotFoundException("Some of requests " + ids + " not found for event id=" + eventId + ".");
+        }
+
+        EventRequestStatusUpdateResult result = new EventRequestStatusUpdateResult();
+        if (req.getStatus() == RequestStatus.CONFIRMED) {
+            for (RequestRepository.RequestRow row : rows) {
+                if (row.getStatus() != RequestStatus.PENDING) {
+                    throw new BadRequestException("Request id=" + row.getId() + " already approved or cancelled.");
+                }
+            }
+            int free = event.getParticipantLimit() - event.getConfirmedRequests();
+            if (free <= 0) {
+                throw new RestrictedException("No free space on this event.");
+            }
+            //Места достаются заявкам в порядке подачи, остальные будут отклонены
+            List<RequestRepository.RequestRow> admitted = rows.subList(0, Math.min(free, rows.size()));
+            List<Integer> admittedIds = new ArrayList<>();
+            for (RequestRepository.RequestRow row : admitted) {
+                admittedIds.add(row.getId());
+                result.getConfirmedRequests().add(universalMapper.toRequestDto(row, eventId, RequestStatus.CONFIRMED));
+            }
+            changeStatuses(admittedIds, List.of(RequestStatus.PENDING), RequestStatus.CONFIRMED);
+            eventRepo.addConfirmedRequests(eventId, admittedIds.size());
+
+            if (admittedIds.size() == free) {
+                for (RequestRepository.RequestRow row : rows.subList(admitted.size(), rows.size())) {
+                    result.getRejectedRequests().add(universalMapper.toRequestDto(row, eventId, RequestStatus.REJECTED));
+                }
+                rejectPending(eventId);
+            }
+        } else if (req.getStatus() == RequestStatus.REJECTED) {
+            //Пакетно отклоняются только ожидающие заявки; подтверждённые освобождают место лишь через reject
+            for (RequestRepository.RequestRow row : rows) {
+                if (row.getStatus() != RequestStatus.PENDING) {
+                    throw new ConflictException("Request id=" + row.getId() + " must have status PENDING, got "
+                            + row.getStatus() + ".");
+                }
+                result.getRejectedRequests().add(universalMapper.toRequestDto(row, eventId, RequestStatus.REJECTED));
+            }
+            changeStatuses(ids, List.of(RequestStatus.PENDING), RequestStatus.REJECTED);
+        } else {
+            throw new BadRequestException("Requests can be only CONFIRMED or REJECTED, got " + req.getStatus() + ".");
+        }
+        log.info("Requests of event id={}: confirmed {}, rejected {}", eventId,
+                result.getConfirmedRequests().size(), result.getRejectedRequests().size());
+        return result;
+    }
+
     @Transactional
     public ParticipationRequestDto reject(Integer userId, Integer eventId, Integer requestId) {
         Event event = baseRequestCheck(userId, eventId);
@@ -129,17 +219,57 @@ public class RequestService {
             throw new BadRequestException("This request already cancelled.");
         }
 
+        changeStatus(request, RequestStatus.REJECTED);
+        if (request.getStatus().equals(RequestStatus.CONFIRMED)) {
+            eventRepo.decrementConfirmedRequests(eventId);
+        }
         request.setStatus(RequestStatus.REJECTED);
 
         return universalMapper.toRequestDto(request);
     }
 
-    private void automaticRejectRequests(Integer eventId) {
-        List<Request> allRequests = requestRepo.findAllByEventIdAndStatus(eventId, RequestStatus.PENDING);
-        log.warn("Auto-reject {} requests for event id={}", allRequests.size(), eventId);
-        for (Request request : allRequests) {
-            request.setStatus(RequestStatus.REJECTED);
+    //Проверка лимита и увеличение счётчика одним условным update, чтобы параллельные заявки не превысили лимит
+    private void takeSeat(Integer eventId) {
+        if (eventRepo.incrementConfirmedRequests(eventId) == 0) {
+            throw new RestrictedException("No free space on this event.");
+        }
+    }
+
+    //Заявки, отменённые заявителем между чтением и update, не дают совпасть числу строк - откат всей операции
+    private void changeStatuses(Collection<Integer> ids, List<RequestStatus> expected, RequestStatus status) {
+        if (requestRepo.updateStatuses(ids, expected, status) != ids.size()) {
+            throw new RestrictedException("Requests " + ids + " were changed concurrently, try again.");
+        }
+    }
+
+    //Переход из прочитанного статуса условным update: два параллельных confirm/cancel одной заявки
+    //не смогут оба занять или освободить место
+    private void changeStatus(Request request, RequestStatus status) {
+        if (requestRepo.compareAndSetStatus(request.getId(), request.getStatus(), status) == 0) {
+            throw new RestrictedException("Request id=" + request.getId() + " was changed concurrently, try again.");
+        }
+    }
+
+    private void rejectPending(Integer eventId) {
+        int rejected = requestRepo.rejectPending(eventId, RequestStatus.PENDING, RequestStatus.REJECTED);
+        log.warn("Auto-reject {} requests for event id={}", rejected, eventId);
+    }
+
+    //Hibernate не для всех драйверов вынимает имя ограничения (у H2 2.x оно null), поэтому смотрим
+    //и в сообщение самого драйвера; H2 к тому же дописывает схему и суффикс индекса - сравниваем по вхождению
+    private static boolean violates(DataIntegrityViolationException e, String constraint) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String name = null;
+            if (cause instanceof ConstraintViolationException) {
+                name = ((ConstraintViolationException) cause).getConstraintName();
+            } else if (cause instanceof SQLException) {
+                name = cause.getMessage();
+            }
+            if (name != null && name.toLowerCase(Locale.ROOT).contains(constraint)) {
+                return true;
+            }
         }
+        return false;
     }
 
     private User findUser(Integer id) {
@@ -162,6 +292,11 @@ public class RequestService {
         }
     }
 
+    private Event findEventForUpdate(Integer id) {
+        return eventRepo.findForUpdate(id)
+                .orElseThrow(() -> new NotFoundException("Event with id=" + id + " not found."));
+    }
+
     private Request findRequest(Integer id) {
         Optional<Request> request = requestRepo.findById(id);
         if (request.isEmpty()) {
@@ -182,16 +317,21 @@ public class RequestService {
         }
     }
 
+     //Ивент читается с блокировкой строки: см. findForUpdate
      private Event baseRequestCheck(Integer userId, Integer eventId) {
          User initiator = findUser(userId);
-         Event event = findEvent(eventId);
+         Event event = findEventForUpdate(eventId);
+         checkModeratedEvent(event, initiator);
+         return event;
+     }
+
+     private void checkModeratedEvent(Event event, User initiator) {
          if (event.getRequestModeration().equals(Boolean.FALSE) || event.getParticipantLimit().equals(0)) {
              throw new BadRequestException("This event not pre-moderated.");
          }
          if (!event.getInitiator().getId().equals(initiator.getId())) {
              throw new RestrictedException("You have no access to confirm requests for this event.");
          }
-         return event;
      }
 
      private void checkEventIdInRequest(Integer eventId, Integer inRequestEventId) {
@@ -0,0 +1,36 @@
+package ru.practicum.mainservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Общее число строк для списков - только по запросу клиента (withTotal=true).
+ * Сами списки count не выполняют, а посчитанные total кэшируются по ключу фильтра на cache-ttl.
+ */
+@Service
+public class TotalCountService {
+
+    private final Cache<String, Long> totals;
+
+    public TotalCountService(MeterRegistry registry,
+                             @Value("${listing.total-count.cache-ttl:30000}") long ttlMs,
+                             @Value("${listing.total-count.cache-max-size:10000}") long maxSize) {
+        this.totals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, totals, "listing-totals");
+    }
+
+    public long count(String key, Supplier<Long> counter) {
+        return totals.get(key, k -> counter.get());
+    }
+}
@@ -2,7 +2,8 @@ package ru.practicum.mainservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.mainservice.exception.NotFoundException;
@@ -10,6 +11,9 @@ import ru.practicum.mainservice.mapper.UniversalMapper;
 import ru.practicum.mainservice.model.User;
 import ru.practicum.mainservice.model.dto.UserDto;
 import ru.practicum.mainservice.repository.UserRepository;
+import ru.practicum.mainservice.util.page.CursorPage;
+import ru.practicum.mainservice.util.page.OffsetPageRequest;
+import ru.practicum.mainservice.util.page.PageCursor;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,12 +26,15 @@ public class UserService {
 
     private final UserRepository userRepo;
     private final UniversalMapper universalMapper;
+    private final TotalCountService totalCounts;
 
-    public List<UserDto> getAll(Integer from, Integer size) {
-        PageRequest page = PageRequest.of(from / size, size);
-        List<User> result = userRepo.findAll(page).getContent();
-        log.info("Users found = {}", result.size());
-        return universalMapper.toUserDtoList(result);
+    public CursorPage<UserDto> getAll(Integer from, Integer size, String after, boolean withTotal) {
+        //С курсором выдача продолжается сразу после него, from не используется
+        OffsetPageRequest page = OffsetPageRequest.of(after == null ? from : 0, size, Sort.by("id"));
+        Slice<User> result = userRepo.findAllByIdGreaterThan(PageCursor.afterId(after), page);
+        log.info("Users found = {}", result.getNumberOfElements());
+        return CursorPage.of(result, universalMapper.toUserDtoList(result.getContent()),
+                user -> PageCursor.ofId(user.getId()), withTotal ? totalCounts.count("users", userRepo::count) : null);
     }
 
     public List<UserDto> getByIds(List<Integer> ids) {
@@ -0,0 +1,171 @@
+package ru.practicum.mainservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.mainservice.util.api.StatsBulkhead;
+import ru.practicum.mainservice.util.api.StatsClient;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Кэш просмотров по id ивента. Просмотры нужны почти в каждом ответе EventService,
+ * а точность до секунд не важна, поэтому значения живут cache-ttl миллисекунд.
+ * Одновременные промахи по одним и тем же id ждут один и тот же запрос в stats-service.
+ * Загрузки выполняются в StatsBulkhead; getViewsAsync позволяет запустить загрузку заранее
+ * и забрать результат через await, когда просмотры действительно понадобятся.
+ */
+@Slf4j
+@Service
+public class ViewsService {
+
+    private final StatsClient statsClient;
+    private final StatsBulkhead bulkhead;
+    private final AsyncLoadingCache<Integer, Long> cache;
+    private final long awaitTimeoutMs;
+    private final Counter staleResponses;
+
+    public ViewsService(StatsClient statsClient,
+                        StatsBulkhead bulkhead,
+                        MeterRegistry registry,
+                        @Value("${stats-server.views.cache-ttl:10000}") long ttlMs,
+                        @Value("${stats-server.views.cache-max-size:50000}") long maxSize,
+                        @Value("${stats-server.views.await-timeout:1500}") long awaitTimeoutMs) {
+        this.statsClient = statsClient;
+        this.bulkhead = bulkhead;
+        this.awaitTimeoutMs = awaitTimeoutMs;
+        this.staleResponses = Counter.builder("stats.views.stale")
+                .description("Responses served with last known views instead of stats-service values")
+                .register(registry);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .buildAsync(new ViewsLoader());
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "event-views");
+        log.info("Views cache created: ttl={}ms, maxSize={}", ttlMs, maxSize);
+    }
+
+    //Без stats-service - пустой результат, т.е. нулевые просмотры
+    public Map<Integer, Long> getViews(Collection<Integer> ids) {
+        return await(getViewsAsync(ids)).orElseGet(Map::of);
+    }
+
+    public CompletableFuture<Map<Integer, Long>> getViewsAsync(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        if (statsClient.isViewsCircuitOpen()) {
+            //Загрузка всё равно была бы отклонена; ещё не истёкшие значения кэша по-прежнему годятся,
+            //даже если их не хватает на всю страницу: недостающим ивентам вызывающий проставит последние известные
+            Map<Integer, Long> cached = cache.synchronous().getAllPresent(ids);
+            if (!cached.keySet().containsAll(ids)) {
+                unavailable(new ResourceAccessException("Stats-service circuit is open, only " + cached.size()
+                        + " views cached."));
+            }
+            return CompletableFuture.completedFuture(cached);
+        }
+        return cache.getAll(ids);
+    }
+
+    /**
+     * Ожидание ограничено: задача может стоять в очереди bulkhead, куда таймаут HTTP-клиента не распространяется.
+     * Любой отказ (таймаут, ошибка stats-service, разомкнутый предохранитель) - пустой результат:
+     * вызывающий отдаёт последние известные просмотры и помечает их как устаревшие.
+     */
+    public Optional<Map<Integer, Long>> await(CompletableFuture<Map<Integer, Long>> views) {
+        try {
+            return Optional.of(views.get(awaitTimeoutMs, TimeUnit.MILLISECONDS));
+        } catch (ExecutionException | CompletionException e) {
+            unavailable(e.getCause());
+        } catch (TimeoutException e) {
+            unavailable(new ResourceAccessException("Views were not loaded in " + awaitTimeoutMs + " ms."));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unavailable(e);
+        }
+        return Optional.empty();
+    }
+
+    /*
+     * То же, что await, но без блокировки: future завершается результатом или пустым Optional при любом отказе.
+     * Своего таймаута нет - срок задаёт вызывающий (orTimeout на переданном future).
+     */
+    public CompletableFuture<Optional<Map<Integer, Long>>> recover(CompletableFuture<Map<Integer, Long>> views) {
+        return views.handle((loaded, error) -> {
+            if (error == null) {
+                return Optional.of(loaded);
+            }
+            unavailable(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            return Optional.empty();
+        });
+    }
+
+    public long getViews(Integer id) {
+        return getViews(List.of(id)).getOrDefault(id, 0L);
+    }
+
+    private void unavailable(Throwable cause) {
+        staleResponses.increment();
+        log.warn("Views are unavailable, stale values will be used: {}", cause.toString());
+    }
+
+    private Map<Integer, Long> loadViews(Set<Integer> ids) {
+        log.debug("Send request for ids size={}", ids.size());
+        Map<Integer, Long> loaded = statsClient.getEventViews(ids);
+
+        Map<Integer, Long> views = new HashMap<>();
+        //Ивенты без просмотров тоже кэшируются, иначе каждый запрос по ним снова уходил бы в stats-service
+        for (Integer id : ids) {
+            views.put(id, loaded.getOrDefault(id, 0L));
+        }
+        return views;
+    }
+
+    //Executor кэша (общий ForkJoinPool) не используется: загрузки идут только в bulkhead stats-клиента
+    private class ViewsLoader implements AsyncCacheLoader<Integer, Long> {
+
+        @Override
+        public CompletableFuture<Long> asyncLoad(Integer id, Executor executor) {
+            return submit(() -> loadViews(Set.of(id)).get(id));
+        }
+
+        //Промахи одного запроса загружаются одним обращением к stats-service
+        @Override
+        public CompletableFuture<Map<Integer, Long>> asyncLoadAll(Iterable<? extends Integer> ids,
+                                                                  Executor executor) {
+            Set<Integer> idSet = new HashSet<>();
+            ids.forEach(idSet::add);
+            return submit(() -> loadViews(idSet));
+        }
+
+        private <T> CompletableFuture<T> submit(Supplier<T> load) {
+            try {
+                return CompletableFuture.supplyAsync(load, bulkhead);
+            } catch (RejectedExecutionException e) {
+                return CompletableFuture.failedFuture(new ResourceAccessException(e.getMessage()));
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.mainservice.util;
+
+public enum EnrichmentMode {
+    //Просмотры запрашиваются до чтения комментариев: время ответа - максимум из stats-service и БД
+    PARALLEL,
+    //Сначала ожидание просмотров, потом комментарии - для сравнения и отладки
+    SEQUENTIAL
+}
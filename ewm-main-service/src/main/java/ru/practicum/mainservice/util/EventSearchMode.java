@@ -0,0 +1,8 @@
+package ru.practicum.mainservice.util;
+
+public enum EventSearchMode {
+    //Подстрока в annotation/description через lower(...) like; на PostgreSQL идёт по триграммному GIN-индексу
+    LIKE,
+    //Полнотекстовый поиск PostgreSQL по GIN-индексу с ранжированием результатов
+    FULL_TEXT
+}
@@ -0,0 +1,23 @@
+package ru.practicum.mainservice.util;
+
+import org.hibernate.dialect.PostgreSQL10Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Диалект с функциями полнотекстового поиска по ивентам. Выражение tsvector должно совпадать
+ * с индексом idx_events_text_search, иначе PostgreSQL не сможет использовать индекс.
+ */
+public class EwmPostgreSQLDialect extends PostgreSQL10Dialect {
+
+    private static final String EVENT_TSVECTOR =
+            "to_tsvector('simple', coalesce(?1, '') || ' ' || coalesce(?2, ''))";
+
+    public EwmPostgreSQLDialect() {
+        super();
+        registerFunction("event_text_match", new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN,
+                "(" + EVENT_TSVECTOR + " @@ plainto_tsquery('simple', ?3))"));
+        registerFunction("event_text_rank", new SQLFunctionTemplate(StandardBasicTypes.DOUBLE,
+                "ts_rank(" + EVENT_TSVECTOR + ", plainto_tsquery('simple', ?3))"));
+    }
+}
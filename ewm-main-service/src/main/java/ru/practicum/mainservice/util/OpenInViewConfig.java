@@ -0,0 +1,29 @@
+package ru.practicum.mainservice.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Open-in-view для всех запросов, кроме публичных GET /events и /events/{id}. Те отвечают асинхронно,
+ * после загрузки просмотров, и открытый на весь запрос EntityManager держал бы соединение с БД всё это время.
+ * Стандартный интерсептор Spring Boot выключен (spring.jpa.open-in-view=false) и регистрируется здесь с исключением.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class OpenInViewConfig implements WebMvcConfigurer {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(interceptor)
+                .excludePathPatterns("/events", "/events/*");
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.mainservice.util.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Разбирает ответ /stats/views ({"id": hits, ...}) потоково, сразу в карту id ивента -> просмотры,
+ * без промежуточного дерева LinkedHashMap.
+ */
+class EventViewsExtractor implements ResponseExtractor<Map<Integer, Long>> {
+
+    //Имена полей - id ивентов, их тысячи разных: таблица канонических имён только росла бы и сбрасывалась
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES)
+            .build();
+    private static final int NO_ID = -1;
+
+    private final int expectedSize;
+
+    EventViewsExtractor(int expectedSize) {
+        this.expectedSize = expectedSize;
+    }
+
+    @Override
+    public Map<Integer, Long> extractData(ClientHttpResponse response) throws IOException {
+        Map<Integer, Long> views = new HashMap<>(Math.max(16, expectedSize * 4 / 3 + 1));
+        try (JsonParser parser = JSON_FACTORY.createParser(response.getBody())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Stats response must be a JSON object, got " + parser.currentToken());
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                int id = parseId(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                parser.nextToken();
+                if (id != NO_ID) {
+                    views.put(id, parser.getLongValue());
+                }
+            }
+        }
+        return views;
+    }
+
+    //Id вне диапазона int (ивента с таким id быть не может) - NO_ID, запись пропускается:
+    //без проверки значение переполнялось и просмотры доставались чужому ивенту
+    private static int parseId(char[] chars, int offset, int length) throws IOException {
+        if (length == 0) {
+            throw new IOException("Empty event id in stats response");
+        }
+        long id = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                throw new IOException("Event id must be numeric: " + new String(chars, offset, length));
+            }
+            id = id * 10 + (c - '0');
+            if (id > Integer.MAX_VALUE) {
+                return NO_ID;
+            }
+        }
+        return (int) id;
+    }
+}
@@ -0,0 +1,184 @@
+package ru.practicum.mainservice.util.api;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import ru.practicum.mainservice.model.dto.HitDto;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Буфер хитов для stats-service: запросы кладут хит в очередь и сразу отвечают клиенту,
+ * а фоновый поток отправляет накопленное пачкой в /hits/batch - по размеру пачки или по таймауту.
+ */
+@Slf4j
+@Component
+public class HitsBuffer {
+
+    private final StatsClient statsClient;
+    private final BlockingQueue<HitDto> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final HitsOverflowPolicy overflowPolicy;
+
+    private final Counter droppedOnOverflow;
+    private final Counter droppedOnFailure;
+    private final Counter sent;
+    private final Timer flushTimer;
+
+    private Thread flusher;
+    private volatile boolean running;
+
+    public HitsBuffer(StatsClient statsClient,
+                      MeterRegistry registry,
+                      @Value("${stats-server.hits.buffer-capacity:10000}") int capacity,
+                      @Value("${stats-server.hits.batch-size:500}") int batchSize,
+                      @Value("${stats-server.hits.flush-interval:1000}") long flushIntervalMs,
+                      @Value("${stats-server.hits.offer-timeout:50}") long offerTimeoutMs,
+                      @Value("${stats-server.hits.overflow-policy:DROP_OLDEST}") HitsOverflowPolicy overflowPolicy) {
+        this.statsClient = statsClient;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.overflowPolicy = overflowPolicy;
+
+        Gauge.builder("stats.hits.buffer.depth", queue, BlockingQueue::size)
+                .description("Hits waiting to be sent to stats-service")
+                .register(registry);
+        this.droppedOnOverflow = Counter.builder("stats.hits.dropped")
+                .tag("reason", "overflow")
+                .register(registry);
+        this.droppedOnFailure = Counter.builder("stats.hits.dropped")
+                .tag("reason", "send-failed")
+                .register(registry);
+        this.sent = Counter.builder("stats.hits.sent")
+                .register(registry);
+        this.flushTimer = Timer.builder("stats.hits.flush")
+                .description("Latency of one batch request to stats-service")
+                .register(registry);
+    }
+
+    public void add(HitDto hit) {
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    if (!queue.offer(hit, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        drop();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    drop();
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(hit)) {
+                    if (queue.poll() != null) {
+                        drop();
+                    }
+                }
+                break;
+            default:
+                if (!queue.offer(hit)) {
+                    drop();
+                }
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "stats-hits-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Hits buffer started: batchSize={}, flushInterval={}ms, policy={}",
+                batchSize, flushIntervalMs, overflowPolicy);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        //Фоновый поток есть только у запущенного буфера
+        if (flusher != null) {
+            flusher.interrupt();
+            flusher.join(flushIntervalMs);
+        }
+        //Досылаем то, что осталось в очереди на момент остановки
+        List<HitDto> rest = new ArrayList<>();
+        while (queue.drainTo(rest, batchSize) > 0) {
+            flush(rest);
+            rest = new ArrayList<>();
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            List<HitDto> batch = new ArrayList<>(batchSize);
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    private void collect(List<HitDto> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                return;
+            }
+            HitDto hit = queue.poll(left, TimeUnit.NANOSECONDS);
+            if (hit == null) {
+                return;
+            }
+            batch.add(hit);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    private void flush(List<HitDto> batch) {
+        long start = System.nanoTime();
+        try {
+            ResponseEntity<Object> response = statsClient.makeHits(batch);
+            if (response.getStatusCode().is2xxSuccessful()) {
+                sent.increment(batch.size());
+                log.debug("Send {} hits to stats-server.", batch.size());
+            } else {
+                droppedOnFailure.increment(batch.size());
+                log.error("Send statistic failed - stats-server responded {}, {} hits lost.",
+                        response.getStatusCode(), batch.size());
+            }
+        } catch (RestClientException e) {
+            droppedOnFailure.increment(batch.size());
+            log.error("Send statistic failed - catch RestClientException: {}", e.getMessage());
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void drop() {
+        droppedOnOverflow.increment();
+        log.debug("Hits buffer is full, hit dropped (policy={}).", overflowPolicy);
+    }
+}
@@ -0,0 +1,5 @@
+package ru.practicum.mainservice.util.api;
+
+public enum HitsOverflowPolicy {
+    DROP_NEWEST, DROP_OLDEST, BLOCK
+}
@@ -0,0 +1,76 @@
+package ru.practicum.mainservice.util.api;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.common.VirtualThreads;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Отдельный ограниченный пул для обращений к stats-service. Медленный stats-service занимает только его потоки
+ * и очередь; когда и они заполнены, новые загрузки отклоняются сразу (RejectedExecutionException),
+ * а не копятся на потоках сервлет-контейнера.
+ */
+@Slf4j
+@Component
+public class StatsBulkhead implements Executor {
+
+    private final ThreadPoolExecutor pool;
+    private final Counter rejected;
+
+    //С виртуальными потоками ограничение bulkhead прежнее: его задаёт размер пула, а не тип потоков
+    public StatsBulkhead(StatsClientProperties properties, MeterRegistry registry,
+                         @Value("${execution.virtual-threads.enabled:false}") boolean virtualThreads) {
+        StatsClientProperties.Bulkhead bulkhead = properties.getBulkhead();
+        ThreadFactory virtual = virtualThreads ? VirtualThreads.factory("stats-client-") : null;
+        this.pool = new ThreadPoolExecutor(bulkhead.getThreads(), bulkhead.getThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(bulkhead.getQueueCapacity()),
+                virtual != null ? virtual : platformThreads());
+        pool.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("stats.client.bulkhead.active", pool, ThreadPoolExecutor::getActiveCount)
+                .register(registry);
+        Gauge.builder("stats.client.bulkhead.queued", pool, p -> p.getQueue().size())
+                .register(registry);
+        this.rejected = Counter.builder("stats.client.bulkhead.rejected")
+                .register(registry);
+        log.info("Stats client bulkhead created: threads={}, queue={}, virtual={}",
+                bulkhead.getThreads(), bulkhead.getQueueCapacity(), virtual != null);
+    }
+
+    private static ThreadFactory platformThreads() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, "stats-client-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        try {
+            pool.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new RejectedExecutionException("Stats client bulkhead is full.", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
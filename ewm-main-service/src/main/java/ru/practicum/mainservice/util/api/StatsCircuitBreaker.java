@@ -0,0 +1,174 @@
+package ru.practicum.mainservice.util.api;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Предохранитель для одной операции stats-service. По последним window-size вызовам считается доля ошибок
+ * и медленных (дольше slow-call-threshold) вызовов; при превышении порога цепь размыкается, и вызовы
+ * отклоняются сразу (ResourceAccessException) на open-duration. Затем half-open-calls пробных вызовов:
+ * все успешные - цепь замыкается, хотя бы один неудачный - снова размыкается.
+ * Ответы 4xx - ошибка запроса, а не признак недоступности сервиса, поэтому они не учитываются как отказы.
+ * Исход вызова засчитывается только тому состоянию, в котором вызов начался: каждый переход открывает
+ * новое поколение, и результаты вызовов из прошлых поколений отбрасываются.
+ */
+@Slf4j
+public class StatsCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final StatsClientProperties.CircuitBreaker config;
+    private final MeterRegistry registry;
+    private final Counter notPermitted;
+
+    //Кольцевой буфер исходов последних вызовов в состоянии CLOSED
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int position;
+    private int recorded;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private long openedAt;
+    private int trialsIssued;
+    private int trialsSucceeded;
+
+    public StatsCircuitBreaker(String name, StatsClientProperties.CircuitBreaker config, MeterRegistry registry) {
+        this.name = name;
+        this.config = config;
+        this.registry = registry;
+        this.failed = new boolean[config.getWindowSize()];
+        this.slow = new boolean[config.getWindowSize()];
+
+        Gauge.builder("stats.client.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("0 - closed, 1 - open, 2 - half-open")
+                .tag("name", name)
+                .register(registry);
+        this.notPermitted = Counter.builder("stats.client.circuit.not-permitted")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    public <T> T call(Supplier<T> call) {
+        long permit = tryAcquire();
+        if (permit < 0) {
+            notPermitted.increment();
+            throw new ResourceAccessException("Stats-service circuit '" + name + "' is open.");
+        }
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            onResult(permit, false, start);
+            return result;
+        } catch (HttpClientErrorException e) {
+            onResult(permit, false, start);
+            throw e;
+        } catch (RuntimeException e) {
+            onResult(permit, true, start);
+            throw e;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    //Проверка без занятия пробного вызова: разомкнутая цепь, у которой open-duration ещё не истёк
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && System.currentTimeMillis() - openedAt < config.getOpenDuration();
+    }
+
+    //Поколение, в котором выдано разрешение, или -1, если вызов не пропущен
+    private synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < config.getOpenDuration()) {
+                return -1;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsIssued >= config.getHalfOpenCalls()) {
+                return -1;
+            }
+            trialsIssued++;
+        }
+        return generation;
+    }
+
+    private synchronized void onResult(long permit, boolean failure, long startNanos) {
+        //Вызов, начатый в CLOSED и завершившийся уже в HALF_OPEN, пробным не считается
+        if (permit != generation) {
+            return;
+        }
+        boolean slowCall = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) > config.getSlowCallThreshold();
+        switch (state) {
+            case HALF_OPEN:
+                if (failure || slowCall) {
+                    transition(State.OPEN);
+                } else if (++trialsSucceeded >= config.getHalfOpenCalls()) {
+                    transition(State.CLOSED);
+                }
+                break;
+            case CLOSED:
+                failed[position] = failure;
+                slow[position] = slowCall;
+                position = (position + 1) % failed.length;
+                recorded = Math.min(recorded + 1, failed.length);
+                if (recorded >= config.getMinimumCalls() && thresholdExceeded()) {
+                    transition(State.OPEN);
+                }
+                break;
+            default:
+                //В OPEN разрешения не выдаются, и текущему поколению здесь засчитывать нечего
+        }
+    }
+
+    private boolean thresholdExceeded() {
+        int failures = 0;
+        int slowCalls = 0;
+        for (int i = 0; i < recorded; i++) {
+            if (failed[i]) {
+                failures++;
+            }
+            if (slow[i]) {
+                slowCalls++;
+            }
+        }
+        return failures * 100 >= config.getFailureRateThreshold() * recorded
+                || slowCalls * 100 >= config.getSlowCallRateThreshold() * recorded;
+    }
+
+    private void transition(State to) {
+        log.warn("Stats-service circuit '{}': {} -> {}", name, state, to);
+        Counter.builder("stats.client.circuit.transitions")
+                .tag("name", name)
+                .tag("from", state.name())
+                .tag("to", to.name())
+                .register(registry)
+                .increment();
+        state = to;
+        generation++;
+        switch (to) {
+            case OPEN:
+                openedAt = System.currentTimeMillis();
+                break;
+            case HALF_OPEN:
+                trialsIssued = 0;
+                trialsSucceeded = 0;
+                break;
+            default:
+                position = 0;
+                recorded = 0;
+        }
+    }
+}
@@ -1,71 +1,100 @@
 package ru.practicum.mainservice.util.api;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.mainservice.model.dto.HitDto;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class StatsClient extends BaseClient {
 
+    //Отдельные предохранители: медленная отправка хитов не должна отключать чтение просмотров, и наоборот
+    private final StatsCircuitBreaker viewsBreaker;
+    private final StatsCircuitBreaker hitsBreaker;
+
     @Autowired
-    public StatsClient(@Value("${stats-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public StatsClient(@Value("${stats-server.url}") String serverUrl, RestTemplateBuilder builder,
+                       StatsClientProperties properties, MeterRegistry registry) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> new StatsRequestFactory(httpClient(properties), properties))
                         .build()
         );
+        this.viewsBreaker = new StatsCircuitBreaker("views", properties.getCircuitBreaker(), registry);
+        this.hitsBreaker = new StatsCircuitBreaker("hits", properties.getCircuitBreaker(), registry);
     }
 
-    public void makeHit(HitDto hit) {
-        post("/hit", hit);
+    public ResponseEntity<Object> makeHits(List<HitDto> hits) {
+        return hitsBreaker.call(() -> failOnServerError(post("/hits/batch", hits)));
     }
 
-    public ResponseEntity<Object> getStats(String start, String end, List<String> uris, Boolean unique) {
-        String uri = buildUris(uris);
-        Map<String, Object> parameters = Map.of(
-                "start", start,
-                "end", end,
-                "uris", uri,
-                "unique", unique.toString()
-        );
-        return get("/stats?start={start}&end={end}&uris={uris}&unique={unique}", parameters);
+    //Просмотры по числовым id ивентов: id уходят в теле POST, ответ разбирается потоково в id -> просмотры
+    public Map<Integer, Long> getEventViews(Collection<Integer> eventIds) {
+        return viewsBreaker.call(() -> loadEventViews(eventIds));
     }
 
-    public ResponseEntity<Object> getStatsInfo(List<String> uris) {
-        String uri = buildUris(uris);
-        Map<String, Object> parameters = Map.of(
-                "uris", uri
-        );
-        return get("/stats/util?uris={uris}", parameters);
+    public boolean isViewsCircuitOpen() {
+        return viewsBreaker.isOpen();
     }
 
-    public ResponseEntity<Object> getAllStatsInfo(Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size
-        );
-        return get("/stats/util?from={from}&size={size}", parameters);
+    private Map<Integer, Long> loadEventViews(Collection<Integer> eventIds) {
+        byte[] body = toJsonArray(eventIds);
+        Map<Integer, Long> views = rest.execute("/stats/views", HttpMethod.POST,
+                request -> {
+                    request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                    request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                    request.getBody().write(body);
+                },
+                new EventViewsExtractor(eventIds.size()));
+        return views != null ? views : Map.of();
     }
 
-    private String buildUris(List<String> uris) {
-        StringBuilder sb = new StringBuilder();
-        if (uris.size() >= 1) {
-            sb.append(uris.get(0));
+    //BaseClient возвращает ошибки сервера как ответ, а предохранителю нужно исключение
+    private static ResponseEntity<Object> failOnServerError(ResponseEntity<Object> response) {
+        if (response.getStatusCode().is5xxServerError()) {
+            throw new HttpServerErrorException(response.getStatusCode());
         }
-        if (uris.size() > 1) {
-            for (int i = 1; i < uris.size(); i++) {
-                sb.append(",").append(uris.get(i));
+        return response;
+    }
+
+    //Все запросы идут на один хост stats-service, поэтому лимит на маршрут равен общему размеру пула
+    private static CloseableHttpClient httpClient(StatsClientProperties properties) {
+        PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager();
+        pool.setMaxTotal(properties.getMaxConnections());
+        pool.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+        pool.setValidateAfterInactivity(2000);
+        return HttpClients.custom()
+                .setConnectionManager(pool)
+                .evictExpiredConnections()
+                .evictIdleConnections(30, TimeUnit.SECONDS)
+                .build();
+    }
+
+    private static byte[] toJsonArray(Collection<Integer> ids) {
+        StringBuilder sb = new StringBuilder(ids.size() * 6 + 2).append('[');
+        for (Integer id : ids) {
+            if (sb.length() > 1) {
+                sb.append(',');
             }
+            sb.append(id);
         }
-        return sb.toString();
+        return sb.append(']').toString().getBytes(StandardCharsets.US_ASCII);
     }
 }
@@ -0,0 +1,49 @@
+package ru.practicum.mainservice.util.api;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Пул соединений, таймауты и bulkhead клиента stats-service (stats-server.http.*). Таймауты - в миллисекундах,
+ * read-timeouts[/stats/views]=300 задаёт таймаут чтения отдельной операции, остальные используют read-timeout.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "stats-server.http")
+public class StatsClientProperties {
+    private int maxConnections = 64;
+    private int maxConnectionsPerRoute = 64;
+    private int connectTimeout = 500;
+    //Ожидание свободного соединения из пула
+    private int connectionRequestTimeout = 200;
+    private int readTimeout = 1000;
+    private Map<String, Integer> readTimeouts = new HashMap<>();
+    private Bulkhead bulkhead = new Bulkhead();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    public int readTimeoutFor(String path) {
+        return readTimeouts.getOrDefault(path, readTimeout);
+    }
+
+    @Data
+    public static class Bulkhead {
+        private int threads = 16;
+        private int queueCapacity = 200;
+    }
+
+    @Data
+    public static class CircuitBreaker {
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+        //Пороги - в процентах от вызовов в окне
+        private int failureRateThreshold = 50;
+        private int slowCallRateThreshold = 80;
+        private int slowCallThreshold = 800;
+        private int openDuration = 10000;
+        private int halfOpenCalls = 3;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.mainservice.util.api;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.net.URI;
+
+//Таймауты выбираются по пути запроса: чтение просмотров короткое, отправка пачки хитов - длиннее
+class StatsRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private final StatsClientProperties properties;
+
+    StatsRequestFactory(HttpClient httpClient, StatsClientProperties properties) {
+        super(httpClient);
+        this.properties = properties;
+    }
+
+    @Override
+    protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.custom()
+                .setConnectTimeout(properties.getConnectTimeout())
+                .setConnectionRequestTimeout(properties.getConnectionRequestTimeout())
+                .setSocketTimeout(properties.readTimeoutFor(uri.getPath()))
+                .build());
+        return context;
+    }
+}
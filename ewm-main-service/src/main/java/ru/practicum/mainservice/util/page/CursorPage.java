@@ -0,0 +1,53 @@
+package ru.practicum.mainservice.util.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница выдачи, курсор следующей страницы (null, если она последняя или порядок не ключевой)
+ * и, если клиент его запросил, общее число строк.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final String TOTAL_HEADER = "X-Total-Count";
+
+    private final List<T> content;
+    private final String nextCursor;
+    private final Long total;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this(content, nextCursor, null);
+    }
+
+    public static <E, T> CursorPage<T> of(Slice<E> slice, List<T> content, Function<E, PageCursor> cursor) {
+        return of(slice, content, cursor, null);
+    }
+
+    //total - null, если клиент его не запрашивал
+    public static <E, T> CursorPage<T> of(Slice<E> slice, List<T> content, Function<E, PageCursor> cursor,
+                                          Long total) {
+        String nextCursor = null;
+        if (slice.hasNext() && cursor != null) {
+            nextCursor = cursor.apply(slice.getContent().get(slice.getNumberOfElements() - 1)).encode();
+        }
+        return new CursorPage<>(content, nextCursor, total);
+    }
+
+    public ResponseEntity<List<T>> toResponse() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(PageCursor.HEADER, nextCursor);
+        }
+        if (total != null) {
+            response.header(TOTAL_HEADER, String.valueOf(total));
+        }
+        return response.body(content);
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.mainservice.util.page;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.mainservice.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Курсор для постраничной выдачи по ключу (seek): позиция последней строки страницы
+ * в порядке сортировки. Для клиента - непрозрачная строка (параметр after, заголовок X-Next-Cursor).
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class PageCursor {
+
+    public static final String HEADER = "X-Next-Cursor";
+
+    private final Key key;
+    private final LocalDateTime eventDate;
+    private final int id;
+
+    /*
+     * Ключ должен быть неизменным, пока клиент листает выдачу. Поэтому курсора для сортировки VIEWS нет:
+     * EventViewsSynchronizer переписывает views на ходу, и страницы по нему пропускали бы или повторяли ивенты.
+     */
+    public enum Key {
+        ID, EVENT_DATE
+    }
+
+    public static PageCursor ofId(int id) {
+        return new PageCursor(Key.ID, null, id);
+    }
+
+    public static PageCursor ofEventDate(LocalDateTime eventDate, int id) {
+        return new PageCursor(Key.EVENT_DATE, eventDate, id);
+    }
+
+    public String encode() {
+        String value = key == Key.EVENT_DATE ? key + "|" + eventDate + "|" + id : key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor, Key expected) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            Key key = Key.valueOf(parts[0]);
+            if (key != expected) {
+                throw new BadRequestException("Cursor was issued for another sort order.");
+            }
+            if (key == Key.EVENT_DATE) {
+                return ofEventDate(LocalDateTime.parse(parts[1]), Integer.parseInt(parts[2]));
+            }
+            return ofId(Integer.parseInt(parts[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    //Id последней строки для выдачи по id; без курсора - с начала
+    public static int afterId(String cursor) {
+        return cursor == null ? 0 : decode(cursor, Key.ID).getId();
+    }
+}
@@ -0,0 +1,12 @@
+-- Число подтверждённых заявок хранится в ивенте, а не считается COUNT-ом на каждую выдачу
+ALTER TABLE events
+    ADD COLUMN confirmed_requests BIGINT NOT NULL DEFAULT 0;
+
+UPDATE events
+SET confirmed_requests = (SELECT COUNT(*)
+                          FROM requests r
+                          WHERE r.event_id = events.id
+                            AND r.status = 'CONFIRMED');
+
+-- Пересчёт счётчика (ConfirmedRequestsReconciler) и автоотклонение ожидающих заявок
+CREATE INDEX idx_requests_event_status ON requests (event_id, status);
@@ -0,0 +1,5 @@
+-- Просмотры из stats-service для фильтрации и сортировки в запросе; заполняет EventViewsSynchronizer
+ALTER TABLE events
+    ADD COLUMN views BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_events_views ON events (views DESC, id);
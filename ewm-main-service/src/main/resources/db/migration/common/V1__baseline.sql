@@ -1,13 +1,3 @@
-DROP TABLE IF EXISTS users cascade;
-DROP TABLE IF EXISTS categories cascade;
-DROP TABLE IF EXISTS compilations cascade;
-DROP TABLE IF EXISTS locations cascade;
-DROP TABLE IF EXISTS events cascade;
-DROP TABLE IF EXISTS requests cascade;
-DROP TABLE IF EXISTS events_compilations cascade;
-DROP TABLE IF EXISTS comments cascade;
-DROP TABLE IF EXISTS events_comments cascade;
-
 CREATE TABLE IF NOT EXISTS users
 (
     id    BIGINT GENERATED BY DEFAULT AS IDENTITY,
@@ -81,4 +71,4 @@ CREATE TABLE IF NOT EXISTS events_comments
     event_id   BIGINT REFERENCES events (id)   NOT NULL,
     comment_id BIGINT REFERENCES comments (id) NOT NULL,
     CONSTRAINT pk_events_comments PRIMARY KEY (event_id, comment_id)
-);
\ No newline at end of file
+);
@@ -0,0 +1,15 @@
+-- Публичный и админский поиск ивентов (EventSpecification): state + диапазон event_date, категории, инициаторы
+CREATE INDEX idx_events_state_event_date ON events (state, event_date);
+CREATE INDEX idx_events_category ON events (category_id);
+CREATE INDEX idx_events_initiator ON events (initiator_id);
+
+-- RequestRepository.findAllByRequesterId, findByEventIdAndRequesterId
+CREATE INDEX idx_requests_requester ON requests (requester_id);
+
+-- CommentRepository.findAllByEventIdInAndStateNot, findAllByAuthorId, findAllByState
+CREATE INDEX idx_comments_event_state ON comments (event_id, state);
+CREATE INDEX idx_comments_author ON comments (author_id);
+CREATE INDEX idx_comments_state ON comments (state);
+
+-- Выборка ивентов подборки идёт по compilation_id (PK), обратный поиск подборок ивента - по event_id
+CREATE INDEX idx_events_compilations_event ON events_compilations (event_id);
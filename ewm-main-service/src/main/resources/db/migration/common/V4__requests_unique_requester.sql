@@ -0,0 +1,18 @@
+-- Одна заявка на ивент от пользователя гарантируется базой, а не чтением перед вставкой:
+-- параллельные дубли раньше проходили проверку RequestService.create одновременно
+DELETE FROM requests r
+WHERE EXISTS(SELECT 1
+             FROM requests d
+             WHERE d.event_id = r.event_id
+               AND d.requester_id = r.requester_id
+               AND d.id < r.id);
+
+ALTER TABLE requests
+    ADD CONSTRAINT uq_requests_event_requester UNIQUE (event_id, requester_id);
+
+-- Удалённые дубли могли быть подтверждены: счётчик мест пересчитывается по оставшимся заявкам
+UPDATE events
+SET confirmed_requests = (SELECT COUNT(*)
+                          FROM requests r
+                          WHERE r.event_id = events.id
+                            AND r.status = 'CONFIRMED');
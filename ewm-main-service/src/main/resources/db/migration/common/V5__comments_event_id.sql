@@ -0,0 +1,3 @@
+-- Комментарии ивента выдаются по id (первая страница в EventFullDto и /events/{eventId}/comments),
+-- idx_comments_event_state для этого порядка не подходит
+CREATE INDEX idx_comments_event_id ON comments (event_id, id);
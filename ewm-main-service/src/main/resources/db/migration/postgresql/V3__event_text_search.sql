@@ -0,0 +1,3 @@
+-- Полнотекстовый поиск ивентов (events.search.mode=FULL_TEXT), выражение совпадает с EwmPostgreSQLDialect
+CREATE INDEX idx_events_text_search ON events
+    USING GIN (to_tsvector('simple', coalesce(annotation, '') || ' ' || coalesce(description, '')));
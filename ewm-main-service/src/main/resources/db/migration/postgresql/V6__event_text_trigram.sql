@@ -0,0 +1,4 @@
+-- Поиск по подстроке (events.search.mode=LIKE, режим по умолчанию): lower(...) like '%text%' идёт по триграммам
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_events_annotation_trgm ON events USING GIN (lower(annotation) gin_trgm_ops);
+CREATE INDEX idx_events_description_trgm ON events USING GIN (lower(description) gin_trgm_ops);
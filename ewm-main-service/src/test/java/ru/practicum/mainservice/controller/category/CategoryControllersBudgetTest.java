@@ -0,0 +1,49 @@
+package ru.practicum.mainservice.controller.category;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import ru.practicum.mainservice.util.budget.BudgetTestSupport;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class CategoryControllersBudgetTest extends BudgetTestSupport {
+
+    @Test
+    void create() throws Exception {
+        expectBudget(1, 0, post("/admin/categories")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("name", "budget-category-create"))));
+    }
+
+    @Test
+    void update() throws Exception {
+        int categoryId = category();
+        expectBudget(2, 0, patch("/admin/categories")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("id", categoryId, "name", "budget-category-update"))));
+    }
+
+    @Test
+    void remove() throws Exception {
+        int categoryId = category();
+        expectBudget(2, 0, delete("/admin/categories/{id}", categoryId));
+    }
+
+    @Test
+    void findAll() throws Exception {
+        category();
+        category();
+        expectBudget(2, 0, get("/categories").param("withTotal", "true"));
+    }
+
+    @Test
+    void findById() throws Exception {
+        int categoryId = category();
+        expectBudget(1, 0, get("/categories/{id}", categoryId));
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.mainservice.controller.comment;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.mainservice.util.ApiTestSupport;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CommentControllerTest extends ApiTestSupport {
+
+    //Новый комментарий получал id автора: второй комментарий пользователя перезаписывал первый
+    @Test
+    void secondCommentOfUserDoesNotOverwriteFirst() throws Exception {
+        int userId = user();
+        int eventId = publishedEvent(userId, category());
+
+        int first = comment(userId, eventId);
+        int second = comment(userId, eventId);
+
+        assertNotEquals(first, second);
+        mvc.perform(get("/events/{eventId}/comments", eventId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", containsInAnyOrder(first, second)));
+    }
+}
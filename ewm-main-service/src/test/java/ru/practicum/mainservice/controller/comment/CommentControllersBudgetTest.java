@@ -0,0 +1,88 @@
+package ru.practicum.mainservice.controller.comment;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import ru.practicum.mainservice.util.budget.BudgetTestSupport;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class CommentControllersBudgetTest extends BudgetTestSupport {
+
+    @Test
+    void findById() throws Exception {
+        int userId = user();
+        int commentId = comment(userId, publishedEvent(userId, category()));
+        expectBudget(2, 0, get("/comments/{id}", commentId));
+    }
+
+    @Test
+    void findByEvent() throws Exception {
+        int userId = user();
+        int eventId = publishedEvent(userId, category());
+        comment(userId, eventId);
+        comment(user(), eventId);
+        expectBudget(1, 0, get("/events/{eventId}/comments", eventId));
+    }
+
+    @Test
+    void findNew() throws Exception {
+        int userId = user();
+        comment(userId, publishedEvent(userId, category()));
+        expectBudget(1, 0, get("/admin/comments/new"));
+    }
+
+    @Test
+    void approve() throws Exception {
+        int userId = user();
+        int commentId = comment(userId, publishedEvent(userId, category()));
+        expectBudget(3, 0, patch("/admin/comments/{id}/approve", commentId));
+    }
+
+    @Test
+    void reject() throws Exception {
+        int userId = user();
+        int commentId = comment(userId, publishedEvent(userId, category()));
+        expectBudget(3, 0, patch("/admin/comments/{id}/reject", commentId));
+    }
+
+    @Test
+    void create() throws Exception {
+        int userId = user();
+        int eventId = publishedEvent(userId, category());
+        expectBudget(2, 0, post("/events/{eventId}/comments", eventId)
+                .param("userId", "" + userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("body", "Comment body long enough"))));
+    }
+
+    @Test
+    void update() throws Exception {
+        int userId = user();
+        int commentId = comment(userId, publishedEvent(userId, category()));
+        expectBudget(3, 0, patch("/comments/{commentId}", commentId)
+                .param("userId", "" + userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("body", "Updated comment body text"))));
+    }
+
+    @Test
+    void remove() throws Exception {
+        int userId = user();
+        int commentId = comment(userId, publishedEvent(userId, category()));
+        expectBudget(2, 0, delete("/comments/{commentId}", commentId).param("userId", "" + userId));
+    }
+
+    @Test
+    void findByUser() throws Exception {
+        int userId = user();
+        int eventId = publishedEvent(userId, category());
+        comment(userId, eventId);
+        comment(userId, eventId);
+        expectBudget(1, 0, get("/users/{userId}/comments", userId));
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.mainservice.controller.compilation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import ru.practicum.mainservice.util.budget.BudgetTestSupport;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class CompilationControllersBudgetTest extends BudgetTestSupport {
+
+    @Test
+    void create() throws Exception {
+        int userId = user();
+        int categoryId = category();
+        List<Integer> events = List.of(publishedEvent(userId, categoryId), publishedEvent(userId, categoryId));
+        expectBudget(6, 0, post("/admin/compilations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("title", "Budget compilation", "pinned", false, "events", events))));
+    }
+
+    @Test
+    void remove() throws Exception {
+        int compilationId = compilation(List.of(publishedEvent(user(), category())));
+        expectBudget(3, 0, delete("/admin/compilations/{id}", compilationId));
+    }
+
+    @Test
+    void removeEvent() throws Exception {
+        int eventId = publishedEvent(user(), category());
+        int compilationId = compilation(List.of(eventId));
+        expectBudget(3, 0, delete("/admin/compilations/{compilationId}/events/{eventId}",
+                compilationId, eventId));
+    }
+
+    @Test
+    void addEvent() throws Exception {
+        int compilationId = compilation(List.of());
+        int eventId = publishedEvent(user(), category());
+        expectBudget(4, 0, patch("/admin/compilations/{compilationId}/events/{eventId}",
+                compilationId, eventId));
+    }
+
+    @Test
+    void unpin() throws Exception {
+        int compilationId = compilation(List.of());
+        expectBudget(1, 0, delete("/admin/compilations/{id}/pin", compilationId));
+    }
+
+    @Test
+    void pin() throws Exception {
+        int compilationId = compilation(List.of());
+        expectBudget(2, 0, patch("/admin/compilations/{id}/pin", compilationId));
+    }
+
+    @Test
+    void findAll() throws Exception {
+        compilation(List.of(publishedEvent(user(), category()), publishedEvent(user(), category())));
+        compilation(List.of(publishedEvent(user(), category())));
+        expectBudget(4, 0, get("/compilations").param("withTotal", "true"));
+    }
+
+    @Test
+    void findById() throws Exception {
+        int compilationId = compilation(List.of(publishedEvent(user(), category()),
+                publishedEvent(user(), category())));
+        expectBudget(3, 0, get("/compilations/{compilationId}", compilationId));
+    }
+}
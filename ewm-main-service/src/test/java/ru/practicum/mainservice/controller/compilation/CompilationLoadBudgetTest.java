@@ -0,0 +1,38 @@
+package ru.practicum.mainservice.controller.compilation;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.practicum.mainservice.util.budget.BudgetTestSupport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+//Подборки грузятся тремя запросами: подборки, связи с ивентами и короткие представления ивентов - при любом их числе
+class CompilationLoadBudgetTest extends BudgetTestSupport {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10})
+    void findByIdIsConstant(int eventsCount) throws Exception {
+        int compilationId = compilation(events(eventsCount));
+        expectBudget(3, 0, get("/compilations/{compilationId}", compilationId));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10})
+    void findAllIsConstant(int eventsCount) throws Exception {
+        compilation(events(eventsCount));
+        compilation(events(eventsCount));
+        expectBudget(3, 0, get("/compilations").param("size", "50"));
+    }
+
+    //У каждого ивента свой инициатор и категория, чтобы их загрузка тоже попала в замер
+    private List<Integer> events(int count) throws Exception {
+        List<Integer> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            events.add(publishedEvent(user(), category()));
+        }
+        return events;
+    }
+}
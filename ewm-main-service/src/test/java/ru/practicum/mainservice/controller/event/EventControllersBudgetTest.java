@@ -0,0 +1,114 @@
+package ru.practicum.mainservice.controller.event;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import ru.practicum.mainservice.util.budget.BudgetTestSupport;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static ru.practicum.mainservice.util.DateFormatter.FORMATTER;
+
+class EventControllersBudgetTest extends BudgetTestSupport {
+
+    @Test
+    void publicFindAll() throws Exception {
+        int userId = user();
+        int categoryId = category();
+        publishedEvent(userId, categoryId);
+        publishedEvent(userId, categoryId);
+        expectBudget(2, 1, get("/events").param("withTotal", "true"));
+    }
+
+    @Test
+    void publicFindById() throws Exception {
+        int userId = user();
+        int eventId = publishedEvent(userId, category());
+        comment(userId, eventId);
+        expectBudget(3, 1, get("/events/{eventId}", eventId));
+    }
+
+    //Разные инициаторы и категории: их загрузка не должна расти с размером страницы
+    @Test
+    void adminFindAll() throws Exception {
+        int first = user();
+        int second = user();
+        publishedEvent(first, category());
+        event(second, category(), 0);
+        publishedEvent(second, category());
+        expectBudget(3, 1, get("/admin/events").param("users", first + "," + second)
+                .param("withTotal", "true"));
+    }
+
+    @Test
+    void adminUpdate() throws Exception {
+        int eventId = event(user(), category(), 0);
+        expectBudget(3, 1, put("/admin/events/{eventId}", eventId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("title", "Updated by admin"))));
+    }
+
+    @Test
+    void adminPublish() throws Exception {
+        int eventId = event(user(), category(), 0);
+        expectBudget(3, 1, patch("/admin/events/{eventId}/publish", eventId));
+    }
+
+    @Test
+    void adminReject() throws Exception {
+        int eventId = event(user(), category(), 0);
+        expectBudget(3, 1, patch("/admin/events/{eventId}/reject", eventId));
+    }
+
+    @Test
+    void userFindAll() throws Exception {
+        int userId = user();
+        event(userId, category(), 0);
+        publishedEvent(userId, category());
+        publishedEvent(userId, category());
+        expectBudget(3, 1, get("/users/{userId}/events", userId).param("withTotal", "true"));
+    }
+
+    @Test
+    void userUpdate() throws Exception {
+        int userId = user();
+        int eventId = event(userId, category(), 0);
+        expectBudget(3, 1, patch("/users/{userId}/events", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("eventId", eventId, "title", "Updated by user"))));
+    }
+
+    @Test
+    void userCreate() throws Exception {
+        int userId = user();
+        Map<String, Object> body = new HashMap<>();
+        body.put("title", "Budget event");
+        body.put("annotation", "Annotation long enough for validation");
+        body.put("description", "Description long enough for validation");
+        body.put("category", category());
+        body.put("eventDate", LocalDateTime.now().plusDays(5).format(FORMATTER));
+        body.put("location", Map.of("lat", 55.75, "lon", 37.62));
+        expectBudget(3, 0, post("/users/{userId}/events", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(body)));
+    }
+
+    @Test
+    void userFindById() throws Exception {
+        int userId = user();
+        int eventId = event(userId, category(), 0);
+        expectBudget(3, 1, get("/users/{userId}/events/{eventId}", userId, eventId));
+    }
+
+    @Test
+    void userCancel() throws Exception {
+        int userId = user();
+        int eventId = event(userId, category(), 0);
+        expectBudget(5, 1, patch("/users/{userId}/events/{eventId}", userId, eventId));
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.mainservice.controller.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import ru.practicum.mainservice.util.ApiTestSupport;
+import ru.practicum.mainservice.util.load.LoadRun;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Режимы выполнения запросов под одной нагрузкой: настоящий Tomcat с TOMCAT_THREADS потоками-обработчиками,
+ * CLIENTS одновременных клиентов GET /users/{id}/events, каждый ответ ждёт stats-service STATS_LATENCY_MS.
+ * Страницы по одному ивенту из EVENTS разных: одновременные промахи кэша по одному id сливаются в одну загрузку.
+ * Ожидание просмотров держит поток запроса, поэтому одновременных обращений к stats-service не больше,
+ * чем потоков, которые могут обрабатывать запросы. Это число от машины не зависит и проверяется;
+ * пропускная способность и p99 печатаются для сравнения режимов.
+ * Пул bulkhead и пул соединений с БД взяты с запасом, чтобы ограничивали не они.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=" + ExecutionModeLoadTestSupport.TOMCAT_THREADS,
+        "server.tomcat.threads.min-spare=" + ExecutionModeLoadTestSupport.TOMCAT_THREADS,
+        "stats-server.views.cache-ttl=0",
+        "stats-server.views.await-timeout=10000",
+        "events.enrichment.deadline=10000",
+        "stats-server.http.bulkhead.threads=128",
+        "stats-server.http.bulkhead.queue-capacity=1000",
+        "spring.datasource.hikari.maximum-pool-size=80"
+})
+abstract class ExecutionModeLoadTestSupport extends ApiTestSupport {
+
+    static final int TOMCAT_THREADS = 8;
+    static final int CLIENTS = 64;
+    static final int REQUESTS = 384;
+    static final int EVENTS = 64;
+    static final long STATS_LATENCY_MS = 50;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeEach
+    void slowStats() {
+        doAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(STATS_LATENCY_MS);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return Map.of();
+        }).when(statsClient).getEventViews(anyCollection());
+    }
+
+    //Возвращает наибольшее число одновременных обращений к stats-service за прогон
+    protected int load(String mode) throws Exception {
+        int userId = user();
+        int categoryId = category();
+        for (int i = 0; i < EVENTS; i++) {
+            event(userId, categoryId, 0);
+        }
+        maxInFlight.set(0);
+
+        LoadRun run = LoadRun.run(CLIENTS, REQUESTS, n -> {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/" + userId
+                    + "/events?size=1&from=" + n % EVENTS)).GET().build();
+            assertEquals(200, http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+        });
+
+        log.info("Execution mode {}: {}, max concurrent stats calls {}", mode, run, maxInFlight.get());
+        return maxInFlight.get();
+    }
+}
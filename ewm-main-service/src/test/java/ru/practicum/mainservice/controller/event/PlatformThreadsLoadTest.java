@@ -0,0 +1,17 @@
+package ru.practicum.mainservice.controller.event;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Режим по умолчанию: одновременных запросов не больше, чем потоков в пуле Tomcat
+class PlatformThreadsLoadTest extends ExecutionModeLoadTestSupport {
+
+    @Test
+    void concurrencyIsCappedByTomcatPool() throws Exception {
+        int concurrent = load("platform");
+
+        assertTrue(concurrent <= TOMCAT_THREADS, concurrent + " concurrent stats calls with "
+                + TOMCAT_THREADS + " Tomcat threads");
+    }
+}
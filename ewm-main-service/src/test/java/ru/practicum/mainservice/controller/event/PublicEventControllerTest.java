@@ -0,0 +1,153 @@
+package ru.practicum.mainservice.controller.event;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.mainservice.util.ApiTestSupport;
+import ru.practicum.mainservice.util.page.PageCursor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.mainservice.util.DateFormatter.FORMATTER;
+
+//404 отдаётся до обогащения: ни просмотров, ни обращений к stats-service
+class PublicEventControllerTest extends ApiTestSupport {
+
+    @Test
+    void unpublishedEventIsNotFound() throws Exception {
+        int eventId = event(user(), category(), 10);
+        clearInvocations(statsClient);
+
+        mvc.perform(get("/events/{eventId}", eventId))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Event with id=" + eventId + " not found."));
+
+        verify(statsClient, never()).getEventViews(anyCollection());
+    }
+
+    //То же событие после публикации уже отдаётся
+    @Test
+    void eventIsFoundOncePublished() throws Exception {
+        int eventId = event(user(), category(), 10);
+        mvc.perform(get("/events/{eventId}", eventId)).andExpect(status().isNotFound());
+
+        publish(eventId);
+
+        MvcResult result = mvc.perform(get("/events/{eventId}", eventId)).andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(eventId))
+                .andExpect(jsonPath("$.state").value("PUBLISHED"));
+    }
+
+    @Test
+    void missingEventIsNotFound() throws Exception {
+        clearInvocations(statsClient);
+
+        mvc.perform(get("/events/{eventId}", Integer.MAX_VALUE)).andExpect(status().isNotFound());
+
+        verify(statsClient, never()).getEventViews(anyCollection());
+    }
+
+    //Режим по умолчанию ищет подстроку, а не целое слово: "conc" находит "concert"
+    @Test
+    void textSearchMatchesSubstring() throws Exception {
+        int userId = user();
+        int concert = publish(create(post("/users/{userId}/events", userId), Map.of(
+                "title", "Open air",
+                "annotation", "Open air Concert in the city park",
+                "description", "Description long enough for validation",
+                "category", category(),
+                "eventDate", LocalDateTime.now().plusDays(5).format(FORMATTER),
+                "location", Map.of("lat", 55.75, "lon", 37.62),
+                "participantLimit", 0,
+                "requestModeration", false)));
+        int other = publishedEvent(userId, category());
+
+        MvcResult result = mvc.perform(get("/events").param("text", "conc").param("size", "1000"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem(concert)))
+                .andExpect(jsonPath("$[*].id", not(hasItem(other))));
+    }
+
+    //views переписываются синхронизатором между запросами страниц, поэтому VIEWS листается только через from/size
+    @Test
+    void viewsSortHasNoCursor() throws Exception {
+        publishedEvent(user(), category());
+        publishedEvent(user(), category());
+
+        MvcResult result = mvc.perform(get("/events").param("sort", "VIEWS").param("size", "1")).andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(PageCursor.HEADER));
+
+        mvc.perform(get("/events").param("sort", "VIEWS").param("after", PageCursor.ofId(1).encode()))
+                .andExpect(status().isBadRequest());
+    }
+
+    //Поток запроса возвращается, пока stats-service ещё отвечает; ответ дописывается, когда приходят просмотры
+    @Test
+    void eventIsCompletedAfterViewsArriveWithoutHoldingRequestThread() throws Exception {
+        //Пока stats-service недоступен, просмотры не кэшируются: публикация не оставит их в кэше
+        when(statsClient.getEventViews(anyCollection())).thenThrow(new ResourceAccessException("down"));
+        int eventId = publishedEvent(user(), category());
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Map.of(eventId, 7L);
+        }).when(statsClient).getEventViews(anyCollection());
+
+        MvcResult result = mvc.perform(get("/events/{eventId}", eventId))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        assertThrows(IllegalStateException.class, () -> result.getAsyncResult(100));
+
+        release.countDown();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.views").value(7));
+    }
+
+    //При разомкнутом предохранителе ивенты из кэша сохраняют свои просмотры, остальные - последние известные
+    @Test
+    void openCircuitServesCachedViewsForPartOfPage() throws Exception {
+        when(statsClient.getEventViews(anyCollection())).thenThrow(new ResourceAccessException("down"));
+        int cached = publishedEvent(user(), category());
+        int missing = publishedEvent(user(), category());
+        doReturn(Map.of(cached, 7L)).when(statsClient).getEventViews(anyCollection());
+        mvc.perform(asyncDispatch(mvc.perform(get("/events/{eventId}", cached)).andReturn()))
+                .andExpect(jsonPath("$.views").value(7));
+
+        when(statsClient.isViewsCircuitOpen()).thenReturn(true);
+        MvcResult result = mvc.perform(get("/events").param("size", "1000")).andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + cached + ")].views").value(7))
+                .andExpect(jsonPath("$[?(@.id == " + cached + ")].viewsStale").value(false))
+                .andExpect(jsonPath("$[?(@.id == " + missing + ")].viewsStale").value(true));
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.mainservice.controller.event;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Та же нагрузка, что в PlatformThreadsLoadTest, с execution.virtual-threads.enabled=true. Размер пула Tomcat
+ * прежний, но запросы идут в виртуальных потоках, и одновременных ожиданий stats-service становится больше.
+ * Виртуальные потоки есть только с JDK 21: на более старом JDK тест пропускается до запуска контекста.
+ */
+@TestPropertySource(properties = "execution.virtual-threads.enabled=true")
+class VirtualThreadsLoadTest extends ExecutionModeLoadTestSupport {
+
+    @BeforeAll
+    static void requireVirtualThreads() {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need JDK 21+");
+    }
+
+    @Test
+    void concurrencyIsNotCappedByTomcatPool() throws Exception {
+        int concurrent = load("virtual");
+
+        assertTrue(concurrent > TOMCAT_THREADS * 2, concurrent + " concurrent stats calls with "
+                + TOMCAT_THREADS + " Tomcat threads");
+    }
+}
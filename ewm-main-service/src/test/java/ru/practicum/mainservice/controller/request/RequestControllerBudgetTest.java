@@ -0,0 +1,80 @@
+package ru.practicum.mainservice.controller.request;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import ru.practicum.mainservice.util.budget.BudgetTestSupport;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class RequestControllerBudgetTest extends BudgetTestSupport {
+
+    @Test
+    void findByRequester() throws Exception {
+        int requesterId = user();
+        int categoryId = category();
+        request(requesterId, publishedEvent(user(), categoryId));
+        request(requesterId, publishedEvent(user(), categoryId));
+        request(requesterId, publishedEvent(user(), categoryId));
+        expectBudget(1, 0, get("/users/{userId}/requests", requesterId));
+    }
+
+    @Test
+    void create() throws Exception {
+        int eventId = publishedEvent(user(), category());
+        expectBudget(3, 0, post("/users/{userId}/requests", user()).param("eventId", "" + eventId));
+    }
+
+    @Test
+    void cancel() throws Exception {
+        int eventId = publishedEvent(user(), category());
+        int requesterId = user();
+        int requestId = request(requesterId, eventId);
+        //Пятое выражение - блокировка строки ивента перед сменой статуса заявки
+        expectBudget(5, 0, patch("/users/{userId}/requests/{requestId}/cancel", requesterId, requestId));
+    }
+
+    @Test
+    void findByEvent() throws Exception {
+        int initiatorId = user();
+        int eventId = publishedEvent(initiatorId, category());
+        request(user(), eventId);
+        request(user(), eventId);
+        request(user(), eventId);
+        expectBudget(1, 0, get("/users/{userId}/events/{eventId}/requests", initiatorId, eventId));
+    }
+
+    @Test
+    void confirm() throws Exception {
+        int initiatorId = user();
+        int eventId = publishedEvent(initiatorId, category());
+        int requestId = request(user(), eventId);
+        expectBudget(6, 0, patch("/users/{userId}/events/{eventId}/requests/{requestId}/confirm",
+                initiatorId, eventId, requestId));
+    }
+
+    @Test
+    void reject() throws Exception {
+        int initiatorId = user();
+        int eventId = publishedEvent(initiatorId, category());
+        int requestId = request(user(), eventId);
+        expectBudget(4, 0, patch("/users/{userId}/events/{eventId}/requests/{requestId}/reject",
+                initiatorId, eventId, requestId));
+    }
+
+    //Пакетная смена статусов: бюджет не зависит от числа заявок
+    @Test
+    void updateStatuses() throws Exception {
+        int initiatorId = user();
+        int eventId = publishedEvent(initiatorId, category());
+        List<Integer> requestIds = List.of(request(user(), eventId), request(user(), eventId),
+                request(user(), eventId));
+        expectBudget(5, 0, patch("/users/{userId}/events/{eventId}/requests", initiatorId, eventId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("requestIds", requestIds, "status", "CONFIRMED"))));
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.mainservice.controller.request;
+
+import org.junit.jupiter.api.Test;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import ru.practicum.mainservice.model.Request;
+import ru.practicum.mainservice.repository.RequestRepository;
+import ru.practicum.mainservice.util.ApiTestSupport;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RequestControllerTest extends ApiTestSupport {
+
+    @SpyBean
+    private RequestRepository requestRepo;
+
+    @Test
+    void duplicateRequestIsForbidden() throws Exception {
+        int eventId = publishedEvent(user(), category());
+        int requesterId = user();
+        request(requesterId, eventId);
+
+        mvc.perform(post("/users/{userId}/requests", requesterId).param("eventId", "" + eventId))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.message").value("You are already sent request for this event."));
+    }
+
+    //Нарушение чужого ограничения - не повторная заявка: исключение уходит дальше как есть
+    @Test
+    void otherIntegrityViolationIsNotReportedAsDuplicate() throws Exception {
+        int eventId = publishedEvent(user(), category());
+        doThrow(new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("insert failed", new SQLException(), "fk_requests_requester")))
+                .when(requestRepo).saveAndFlush(any(Request.class));
+
+        mvc.perform(post("/users/{userId}/requests", user()).param("eventId", "" + eventId))
+                .andExpect(status().isConflict());
+    }
+
+    //Пакетное отклонение не трогает подтверждённые заявки: место освобождается только через /reject
+    @Test
+    void bulkRejectOfConfirmedRequestIsConflict() throws Exception {
+        int initiatorId = user();
+        int eventId = publishedEvent(initiatorId, category());
+        int confirmed = request(user(), eventId);
+        int pending = request(user(), eventId);
+        mvc.perform(patch("/users/{userId}/events/{eventId}/requests/{requestId}/confirm",
+                initiatorId, eventId, confirmed)).andExpect(status().isOk());
+
+        mvc.perform(patch("/users/{userId}/events/{eventId}/requests", initiatorId, eventId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("requestIds", List.of(pending, confirmed), "status", "REJECTED"))))
+                .andExpect(status().isConflict());
+
+        mvc.perform(get("/users/{userId}/events/{eventId}/requests", initiatorId, eventId))
+                .andExpect(jsonPath("$[?(@.id == " + confirmed + ")].status").value("CONFIRMED"))
+                .andExpect(jsonPath("$[?(@.id == " + pending + ")].status").value("PENDING"));
+    }
+
+    @Test
+    void bulkRejectOfPendingRequests() throws Exception {
+        int initiatorId = user();
+        int eventId = publishedEvent(initiatorId, category());
+        List<Integer> requestIds = List.of(request(user(), eventId), request(user(), eventId));
+
+        mvc.perform(patch("/users/{userId}/events/{eventId}/requests", initiatorId, eventId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("requestIds", requestIds, "status", "REJECTED"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.confirmedRequests.length()").value(0))
+                .andExpect(jsonPath("$.rejectedRequests.length()").value(2))
+                .andExpect(jsonPath("$.rejectedRequests[*].status", everyItem(is("REJECTED"))));
+    }
+}
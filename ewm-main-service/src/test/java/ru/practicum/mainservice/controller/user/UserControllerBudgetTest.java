@@ -0,0 +1,41 @@
+package ru.practicum.mainservice.controller.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import ru.practicum.mainservice.util.budget.BudgetTestSupport;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class UserControllerBudgetTest extends BudgetTestSupport {
+
+    @Test
+    void findAll() throws Exception {
+        user();
+        user();
+        expectBudget(2, 0, get("/admin/users").param("withTotal", "true"));
+    }
+
+    @Test
+    void findByIds() throws Exception {
+        int first = user();
+        int second = user();
+        expectBudget(1, 0, get("/admin/users").param("ids", first + "," + second));
+    }
+
+    @Test
+    void create() throws Exception {
+        expectBudget(1, 0, post("/admin/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("name", "budget", "email", "budget-create@mail.ru"))));
+    }
+
+    @Test
+    void remove() throws Exception {
+        int userId = user();
+        expectBudget(2, 0, delete("/admin/users/{id}", userId));
+    }
+}
@@ -0,0 +1,129 @@
+package ru.practicum.mainservice.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.mainservice.model.Event;
+import ru.practicum.mainservice.util.ApiTestSupport;
+import ru.practicum.mainservice.util.page.OffsetPageRequest;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static ru.practicum.mainservice.repository.EventSpecification.hasUsers;
+import static ru.practicum.mainservice.util.DateFormatter.FORMATTER;
+
+/**
+ * Страница публичного списка двумя путями: сущности Event (findSlice) и проекция в колонки EventShortDto
+ * (findShortSlice). У ивентов длинные description, которые проекция не читает. Сравниваются выражения SQL,
+ * загруженные сущности (статистика Hibernate) и объём строковых колонок, прочитанных в объекты страницы.
+ * Выделенная память не годится: H2 in-memory отдаёт свои же экземпляры String, без копирования.
+ */
+@Slf4j
+class EventShortSliceBudgetTest extends ApiTestSupport {
+
+    private static final int PAGE = 50;
+    private static final int DESCRIPTION_LENGTH = 5000;
+
+    @Autowired
+    private EventRepository eventRepo;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void projectionLoadsNoEntitiesAndSkipsDescriptions() throws Exception {
+        int userId = user();
+        int categoryId = category();
+        for (int i = 0; i <= PAGE; i++) {
+            longEvent(userId, categoryId);
+        }
+        Specification<Event> spec = hasUsers(List.of(userId));
+        OffsetPageRequest page = OffsetPageRequest.of(0, PAGE, Sort.by("id"));
+
+        Measure entities = measure(() -> eventRepo.findSlice(spec, page));
+        Measure projection = measure(() -> eventRepo.findShortSlice(spec, page));
+
+        log.info("Page of {} events: entities {} statements, {} loaded, {} text chars; "
+                        + "projection {} statements, {} loaded, {} text chars", PAGE,
+                entities.statements, entities.loaded, entities.chars,
+                projection.statements, projection.loaded, projection.chars);
+        assertEquals(1, projection.statements);
+        assertEquals(0, projection.loaded);
+        assertTrue(entities.loaded >= PAGE, "entity path loaded " + entities.loaded + " entities");
+        assertTrue(projection.chars * 10 <= entities.chars,
+                "projection " + projection.chars + " chars vs entities " + entities.chars + " chars");
+    }
+
+    private Measure measure(Supplier<Slice<?>> query) throws IllegalAccessException {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            Slice<?> slice = query.get();
+            assertEquals(PAGE, slice.getNumberOfElements());
+            long chars = 0;
+            for (Object row : slice.getContent()) {
+                chars += textLength(row, 1);
+            }
+            return new Measure(statistics.getPrepareStatementCount(), statistics.getEntityLoadCount(), chars);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    //Строковые поля строки страницы и связанных с ней моделей (категория, инициатор) на глубину depth
+    private static long textLength(Object value, int depth) throws IllegalAccessException {
+        long chars = 0;
+        for (Field field : value.getClass().getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            Object fieldValue = field.get(value);
+            if (fieldValue instanceof String) {
+                chars += ((String) fieldValue).length();
+            } else if (fieldValue != null && depth > 0
+                    && fieldValue.getClass().getPackageName().equals(Event.class.getPackageName())) {
+                chars += textLength(fieldValue, depth - 1);
+            }
+        }
+        return chars;
+    }
+
+    private void longEvent(int userId, int categoryId) throws Exception {
+        Map<String, Object> body = new HashMap<>();
+        body.put("title", "Long event");
+        body.put("annotation", "Annotation long enough for validation");
+        body.put("description", "d".repeat(DESCRIPTION_LENGTH));
+        body.put("category", categoryId);
+        body.put("eventDate", LocalDateTime.now().plusDays(5).format(FORMATTER));
+        body.put("location", Map.of("lat", 55.75, "lon", 37.62));
+        create(post("/users/{userId}/events", userId), body);
+    }
+
+    private static final class Measure {
+        private final long statements;
+        private final long loaded;
+        private final long chars;
+
+        private Measure(long statements, long loaded, long chars) {
+            this.statements = statements;
+            this.loaded = loaded;
+            this.chars = chars;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.mainservice.repository;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Планы горячих запросов по EXPLAIN на схеме из миграций: запрос должен идти по своему индексу.
+ * H2 сам индексирует внешние ключи, поэтому для выборок по ним проверяется только отсутствие
+ * полного сканирования; в PostgreSQL эти индексы создаёт V2.
+ */
+@SpringBootTest
+class IndexUsageTest {
+
+    private static final String ANY_INDEX = "";
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    static Stream<Arguments> queries() {
+        return Stream.of(
+                //EventSpecification: публичный и админский поиск
+                Arguments.of("SELECT id FROM events WHERE state = 'PUBLISHED'"
+                        + " AND event_date > TIMESTAMP '2024-01-01 00:00:00'", "IDX_EVENTS_STATE_EVENT_DATE"),
+                Arguments.of("SELECT id FROM events WHERE category_id IN (1, 2)", ANY_INDEX),
+                Arguments.of("SELECT id FROM events WHERE initiator_id IN (1, 2)", ANY_INDEX),
+                //Сортировка по просмотрам
+                Arguments.of("SELECT id FROM events ORDER BY views DESC, id LIMIT 10", "IDX_EVENTS_VIEWS"),
+                //ConfirmedRequestsReconciler, rejectPending
+                Arguments.of("SELECT COUNT(*) FROM requests WHERE event_id = 1 AND status = 'CONFIRMED'",
+                        "IDX_REQUESTS_EVENT_STATUS"),
+                Arguments.of("SELECT id FROM requests WHERE event_id = 1 AND requester_id = 2",
+                        "UQ_REQUESTS_EVENT_REQUESTER"),
+                Arguments.of("SELECT id FROM requests WHERE requester_id = 1", ANY_INDEX),
+                //Комментарии ивентов и модерация
+                Arguments.of("SELECT id FROM comments WHERE event_id IN (1, 2) AND state <> 'PENDING'",
+                        "IDX_COMMENTS_EVENT_STATE"),
+                Arguments.of("SELECT id FROM comments WHERE state = 'PENDING'", "IDX_COMMENTS_STATE"),
+                Arguments.of("SELECT id FROM comments WHERE author_id = 1", ANY_INDEX),
+                Arguments.of("SELECT id FROM comments WHERE event_id = 1 AND id > 5 ORDER BY id LIMIT 10", ANY_INDEX),
+                Arguments.of("SELECT compilation_id FROM events_compilations WHERE event_id = 1", ANY_INDEX)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("queries")
+    void queryUsesIndex(String query, String index) {
+        String plan = jdbc.queryForObject("EXPLAIN " + query, String.class);
+
+        assertFalse(plan.contains("tableScan"), "full scan: " + plan);
+        assertTrue(plan.contains("PUBLIC." + index), "expected " + index + ": " + plan);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.mainservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.mainservice.util.ApiTestSupport;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ConfirmedRequestsReconcilerTest extends ApiTestSupport {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @Autowired
+    private ConfirmedRequestsReconciler reconciler;
+    @Autowired
+    private RequestService requestService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void repairsDriftedCounter() throws Exception {
+        int initiator = user();
+        int eventId = publishedEvent(initiator, category());
+        int requestId = request(user(), eventId);
+        requestService.confirm(initiator, eventId, requestId);
+        jdbc.update("UPDATE events SET confirmed_requests = 5 WHERE id = ?", eventId);
+
+        reconciler.reconcile();
+
+        assertEquals(1, confirmedRequests(eventId));
+    }
+
+    //Сверка, начатая посреди незакоммиченного подтверждения, ждёт его и не откатывает счётчик к старому числу
+    @Test
+    void waitsForConcurrentConfirm() throws Exception {
+        int initiator = user();
+        int eventId = publishedEvent(initiator, category());
+        int first = request(user(), eventId);
+        int second = request(user(), eventId);
+        requestService.confirm(initiator, eventId, first);
+
+        CountDownLatch confirmed = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        Future<?> confirm = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            requestService.confirm(initiator, eventId, second);
+            confirmed.countDown();
+            try {
+                commit.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        confirmed.await(5, TimeUnit.SECONDS);
+
+        Future<?> reconcile = executor.submit(reconciler::reconcile);
+        Thread.sleep(300);
+        assertFalse(reconcile.isDone(), "reconcile must wait for the event row lock");
+
+        commit.countDown();
+        confirm.get(5, TimeUnit.SECONDS);
+        reconcile.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, confirmedRequests(eventId));
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM requests WHERE event_id = ? AND status = 'CONFIRMED'",
+                Integer.class, eventId));
+    }
+
+    private int confirmedRequests(int eventId) {
+        return jdbc.queryForObject("SELECT confirmed_requests FROM events WHERE id = ?", Integer.class, eventId);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.mainservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.mainservice.util.ApiTestSupport;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+class EventViewsSynchronizerTest extends ApiTestSupport {
+
+    @Autowired
+    private EventViewsSynchronizer synchronizer;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void copiesViewsOfPublishedEvents() throws Exception {
+        int eventId = publishedEvent(user(), category());
+        when(statsClient.getEventViews(anyCollection())).thenReturn(Map.of(eventId, 42L));
+
+        synchronizer.synchronize();
+
+        assertEquals(42L, jdbc.queryForObject("SELECT views FROM events WHERE id = ?", Long.class, eventId));
+    }
+
+    //Сбой БД посреди прохода логируется и не выходит в планировщик
+    @Test
+    void stopsQuietlyOnNonHttpFailure() throws Exception {
+        publishedEvent(user(), category());
+        when(statsClient.getEventViews(anyCollection())).thenThrow(new QueryTimeoutException("views update timeout"));
+
+        assertDoesNotThrow(() -> synchronizer.synchronize());
+    }
+}
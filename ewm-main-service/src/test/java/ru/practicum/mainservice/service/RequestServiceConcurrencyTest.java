@@ -0,0 +1,131 @@
+package ru.practicum.mainservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.mainservice.controller.model.EventRequestStatusUpdateRequest;
+import ru.practicum.mainservice.exception.BadRequestException;
+import ru.practicum.mainservice.exception.RestrictedException;
+import ru.practicum.mainservice.util.ApiTestSupport;
+import ru.practicum.mainservice.util.status.RequestStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Параллельные операции над заявками одного ивента: без взаимоблокировок, проигравшие получают
+//только штатные ошибки, счётчик совпадает с числом подтверждённых заявок
+class RequestServiceConcurrencyTest extends ApiTestSupport {
+
+    private static final int ROUNDS = 20;
+    private static final int THREADS = 16;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @Autowired
+    private RequestService requestService;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void singleAndBulkStatusChangesDoNotDeadlock() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            int initiator = user();
+            int eventId = publishedEvent(initiator, category());
+            int firstRequester = user();
+            int first = request(firstRequester, eventId);
+            int second = request(user(), eventId);
+            int third = request(user(), eventId);
+            requestService.confirm(initiator, eventId, third);
+
+            CyclicBarrier start = new CyclicBarrier(4);
+            List<Future<?>> tasks = new ArrayList<>();
+            tasks.add(executor.submit(() -> race(start, () -> requestService.updateStatuses(initiator, eventId,
+                    new EventRequestStatusUpdateRequest(List.of(first, second), RequestStatus.CONFIRMED)))));
+            tasks.add(executor.submit(() -> race(start, () -> requestService.confirm(initiator, eventId, second))));
+            tasks.add(executor.submit(() -> race(start, () -> requestService.cancelByRequester(firstRequester, first))));
+            tasks.add(executor.submit(() -> race(start, () -> requestService.reject(initiator, eventId, third))));
+            for (Future<?> task : tasks) {
+                task.get(10, TimeUnit.SECONDS);
+            }
+
+            int confirmed = jdbc.queryForObject("SELECT COUNT(*) FROM requests WHERE event_id = ? AND status = 'CONFIRMED'",
+                    Integer.class, eventId);
+            assertEquals(confirmed, jdbc.queryForObject("SELECT confirmed_requests FROM events WHERE id = ?",
+                    Integer.class, eventId), "round " + round);
+        }
+    }
+
+    //Повторные заявки одного пользователя отсекает уникальный индекс: остаётся ровно одна
+    @Test
+    void duplicateCreatesKeepOneRequest() throws Exception {
+        int eventId = publishedEvent(user(), category());
+        int requester = user();
+
+        int created = concurrently(() -> requestService.create(requester, eventId));
+
+        assertEquals(1, created);
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM requests WHERE event_id = ? AND requester_id = ?",
+                Integer.class, eventId, requester));
+    }
+
+    //Без премодерации заявки подтверждаются сразу: лимит не превышается и счётчик сходится
+    @Test
+    void concurrentCreatesRespectParticipantLimit() throws Exception {
+        int limit = 5;
+        int eventId = publish(event(user(), category(), limit, false));
+        List<Integer> requesters = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            requesters.add(user());
+        }
+        AtomicInteger next = new AtomicInteger();
+
+        int created = concurrently(() -> requestService.create(requesters.get(next.getAndIncrement()), eventId));
+
+        assertEquals(limit, created);
+        assertEquals(limit, jdbc.queryForObject("SELECT COUNT(*) FROM requests WHERE event_id = ? AND status = 'CONFIRMED'",
+                Integer.class, eventId));
+        assertEquals(limit, jdbc.queryForObject("SELECT confirmed_requests FROM events WHERE id = ?",
+                Integer.class, eventId));
+    }
+
+    //Запускает action в THREADS потоках одновременно и возвращает число успешных вызовов
+    private int concurrently(Runnable action) throws Exception {
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        List<Future<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            tasks.add(executor.submit(() -> race(start, action)));
+        }
+        int succeeded = 0;
+        for (Future<Boolean> task : tasks) {
+            if (task.get(10, TimeUnit.SECONDS)) {
+                succeeded++;
+            }
+        }
+        return succeeded;
+    }
+
+    //Отказ из-за параллельного изменения - штатный исход; любое другое исключение проваливает тест
+    private static boolean race(CyclicBarrier start, Runnable action) throws Exception {
+        start.await(5, TimeUnit.SECONDS);
+        try {
+            action.run();
+            return true;
+        } catch (RestrictedException | BadRequestException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.mainservice.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.mainservice.util.api.StatsClient;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.mainservice.util.DateFormatter.FORMATTER;
+
+/**
+ * Общая база интеграционных тестов: данные создаются через API, StatsClient заменён моком.
+ * Имена уникальны, поэтому тесты не зависят друг от друга.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public abstract class ApiTestSupport {
+
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    protected MockMvc mvc;
+    @Autowired
+    protected ObjectMapper mapper;
+    @MockBean
+    protected StatsClient statsClient;
+
+    protected String json(Object body) throws Exception {
+        return mapper.writeValueAsString(body);
+    }
+
+    protected int idOf(MvcResult result) throws Exception {
+        return mapper.readTree(result.getResponse().getContentAsString()).get("id").asInt();
+    }
+
+    protected int create(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        MvcResult result = mvc.perform(request.contentType(MediaType.APPLICATION_JSON).content(json(body)))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn();
+        return idOf(result);
+    }
+
+    protected int user() throws Exception {
+        int n = SEQ.incrementAndGet();
+        return create(post("/admin/users"), Map.of("name", "user" + n, "email", "user" + n + "@mail.ru"));
+    }
+
+    protected int category() throws Exception {
+        return create(post("/admin/categories"), Map.of("name", "category" + SEQ.incrementAndGet()));
+    }
+
+    //Ивент с премодерацией заявок и лимитом участников, ещё не опубликованный
+    protected int event(int userId, int categoryId, int participantLimit) throws Exception {
+        return event(userId, categoryId, participantLimit, true);
+    }
+
+    protected int event(int userId, int categoryId, int participantLimit, boolean requestModeration)
+            throws Exception {
+        Map<String, Object> body = new HashMap<>();
+        body.put("title", "event" + SEQ.incrementAndGet());
+        body.put("annotation", "Annotation long enough for validation");
+        body.put("description", "Description long enough for validation");
+        body.put("category", categoryId);
+        body.put("eventDate", LocalDateTime.now().plusDays(5).format(FORMATTER));
+        body.put("location", Map.of("lat", 55.75, "lon", 37.62));
+        body.put("participantLimit", participantLimit);
+        body.put("requestModeration", requestModeration);
+        return create(post("/users/{userId}/events", userId), body);
+    }
+
+    protected int publishedEvent(int userId, int categoryId) throws Exception {
+        return publish(event(userId, categoryId, 10));
+    }
+
+    protected int publish(int eventId) throws Exception {
+        mvc.perform(patch("/admin/events/{eventId}/publish", eventId)).andExpect(status().is2xxSuccessful());
+        return eventId;
+    }
+
+    protected int request(int userId, int eventId) throws Exception {
+        MvcResult result = mvc.perform(post("/users/{userId}/requests", userId).param("eventId", "" + eventId))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn();
+        return idOf(result);
+    }
+
+    protected int comment(int userId, int eventId) throws Exception {
+        return create(post("/events/{eventId}/comments", eventId).param("userId", "" + userId),
+                Map.of("body", "Comment body long enough"));
+    }
+
+    protected int compilation(List<Integer> events) throws Exception {
+        return create(post("/admin/compilations"),
+                Map.of("title", "compilation" + SEQ.incrementAndGet(), "pinned", false, "events", events));
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.mainservice.util.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import ru.practicum.mainservice.model.dto.ViewStatsDto;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Разбор ответа на 10k ивентов: потоковый EventViewsExtractor против прежнего пути (дерево Object из RestTemplate,
+ * convertValue в List<ViewStatsDto> и split uri). Бюджет - байты, выделенные потоком на один разбор:
+ * они от машины почти не зависят, в отличие от времени, которое только печатается в лог.
+ */
+@Slf4j
+class EventViewsDecodeBudgetTest {
+
+    private static final int ENTRIES = 10_000;
+    private static final int WARMUP = 20;
+    private static final int ROUNDS = 20;
+    //Узел HashMap, Integer и Long на запись - около 72 байт, плюс таблица
+    private static final long BYTES_PER_ENTRY = 160;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void streamingDecodeStaysWithinAllocationBudget() throws Exception {
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        byte[] views = viewsResponse();
+        byte[] stats = legacyStatsResponse();
+        assertEquals(streaming(views), legacy(stats));
+
+        Measure streaming = measure(() -> streaming(views));
+        Measure legacy = measure(() -> legacy(stats));
+
+        log.info("Decode of {} entries: streaming {} bytes, {} us; legacy {} bytes, {} us", ENTRIES,
+                streaming.bytes, streaming.nanos / 1000, legacy.bytes, legacy.nanos / 1000);
+        assertTrue(streaming.bytes <= ENTRIES * BYTES_PER_ENTRY,
+                "streaming decode allocated " + streaming.bytes + " bytes, limit " + ENTRIES * BYTES_PER_ENTRY);
+        assertTrue(streaming.bytes * 3 <= legacy.bytes,
+                "streaming " + streaming.bytes + " bytes vs legacy " + legacy.bytes + " bytes");
+    }
+
+    private Map<Integer, Long> streaming(byte[] body) throws IOException {
+        return new EventViewsExtractor(ENTRIES).extractData(new MockClientHttpResponse(body, HttpStatus.OK));
+    }
+
+    //Так просмотры разбирались до EventViewsExtractor
+    private Map<Integer, Long> legacy(byte[] body) throws IOException {
+        Object tree = mapper.readValue(body, Object.class);
+        List<ViewStatsDto> stats = mapper.convertValue(tree, new TypeReference<List<ViewStatsDto>>() {
+        });
+        Map<Integer, Long> views = new HashMap<>();
+        for (ViewStatsDto entry : stats) {
+            String[] line = entry.getUri().split("/");
+            views.put(Integer.parseInt(line[2]), entry.getHits());
+        }
+        return views;
+    }
+
+    //Минимум по замерам: разовые выделения JIT и GC не попадают в результат
+    private Measure measure(Decode decode) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            decode.run();
+        }
+        Measure best = new Measure(Long.MAX_VALUE, Long.MAX_VALUE);
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < ROUNDS; i++) {
+            long bytes = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            decode.run();
+            long nanos = System.nanoTime() - start;
+            bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+            best = new Measure(Math.min(best.bytes, bytes), Math.min(best.nanos, nanos));
+        }
+        return best;
+    }
+
+    private static byte[] viewsResponse() {
+        StringBuilder json = new StringBuilder("{");
+        for (int id = 1; id <= ENTRIES; id++) {
+            json.append(id > 1 ? "," : "").append('"').append(id).append("\":").append(id * 7L);
+        }
+        return json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] legacyStatsResponse() {
+        StringBuilder json = new StringBuilder("[");
+        for (int id = 1; id <= ENTRIES; id++) {
+            json.append(id > 1 ? "," : "").append("{\"uri\":\"/events/").append(id)
+                    .append("\",\"app\":\"ewm-main-service\",\"hits\":").append(id * 7L).append('}');
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private interface Decode {
+        void run() throws Exception;
+    }
+
+    private static final class Measure {
+        private final long bytes;
+        private final long nanos;
+
+        private Measure(long bytes, long nanos) {
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.mainservice.util.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventViewsExtractorTest {
+
+    @Test
+    void readsViewsById() throws IOException {
+        assertEquals(Map.of(1, 5L, 42, 0L), extract("{\"1\": 5, \"42\": 0}"));
+    }
+
+    @Test
+    void skipsIdsOutOfIntRange() throws IOException {
+        assertEquals(Map.of(1, 5L, Integer.MAX_VALUE, 3L),
+                extract("{\"1\": 5, \"99999999999\": 7, \"2147483648\": 9, \"2147483647\": 3}"));
+    }
+
+    @Test
+    void rejectsNonNumericIds() {
+        assertThrows(IOException.class, () -> extract("{\"/events/1\": 5}"));
+    }
+
+    private static Map<Integer, Long> extract(String json) throws IOException {
+        return new EventViewsExtractor(4).extractData(
+                new MockClientHttpResponse(json.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.mainservice.util.api;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.mainservice.model.dto.HitDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+//Буфер не запускается: фоновый поток не разбирает очередь, и она переполняется предсказуемо.
+//Что осталось в очереди, видно по пачке, которую stop() досылает в stats-service
+class HitsBufferTest {
+
+    private static final int CAPACITY = 3;
+    private static final long OFFER_TIMEOUT = 100;
+
+    private final StatsClient statsClient = mock(StatsClient.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void dropNewestKeepsFirstHits() throws Exception {
+        HitsBuffer buffer = buffer(HitsOverflowPolicy.DROP_NEWEST);
+
+        addHits(buffer, 5);
+
+        assertEquals(List.of("/1", "/2", "/3"), flushed(buffer));
+        assertEquals(2, dropped());
+    }
+
+    @Test
+    void dropOldestKeepsLastHits() throws Exception {
+        HitsBuffer buffer = buffer(HitsOverflowPolicy.DROP_OLDEST);
+
+        addHits(buffer, 5);
+
+        assertEquals(List.of("/3", "/4", "/5"), flushed(buffer));
+        assertEquals(2, dropped());
+    }
+
+    //Вызывающий ждёт освобождения места не дольше offer-timeout, потом хит отбрасывается
+    @Test
+    void blockWaitsOfferTimeoutThenDrops() throws Exception {
+        HitsBuffer buffer = buffer(HitsOverflowPolicy.BLOCK);
+        addHits(buffer, CAPACITY);
+
+        long start = System.nanoTime();
+        buffer.add(hit(CAPACITY + 1));
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(waited >= OFFER_TIMEOUT, "add returned after " + waited + " ms");
+        assertEquals(List.of("/1", "/2", "/3"), flushed(buffer));
+        assertEquals(1, dropped());
+    }
+
+    @Test
+    void blockDoesNotWaitWhileThereIsSpace() throws Exception {
+        HitsBuffer buffer = buffer(HitsOverflowPolicy.BLOCK);
+
+        long start = System.nanoTime();
+        addHits(buffer, CAPACITY);
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(waited < OFFER_TIMEOUT, "add returned after " + waited + " ms");
+        assertEquals(List.of("/1", "/2", "/3"), flushed(buffer));
+        assertEquals(0, dropped());
+    }
+
+    private HitsBuffer buffer(HitsOverflowPolicy policy) {
+        when(statsClient.makeHits(anyList())).thenReturn(ResponseEntity.ok().build());
+        return new HitsBuffer(statsClient, registry, CAPACITY, CAPACITY, 1000, OFFER_TIMEOUT, policy);
+    }
+
+    private static void addHits(HitsBuffer buffer, int count) {
+        for (int i = 1; i <= count; i++) {
+            buffer.add(hit(i));
+        }
+    }
+
+    private static HitDto hit(int n) {
+        return new HitDto(null, "ewm-main-service", "/" + n, "127.0.0.1", "2022-09-06 11:00:23");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> flushed(HitsBuffer buffer) throws InterruptedException {
+        buffer.stop();
+        ArgumentCaptor<List<HitDto>> batches = ArgumentCaptor.forClass(List.class);
+        verify(statsClient).makeHits(batches.capture());
+        List<String> uris = new ArrayList<>();
+        batches.getAllValues().forEach(batch -> uris.addAll(batch.stream().map(HitDto::getUri)
+                .collect(Collectors.toList())));
+        return uris;
+    }
+
+    private double dropped() {
+        return registry.get("stats.hits.dropped").tag("reason", "overflow").counter().count();
+    }
+}
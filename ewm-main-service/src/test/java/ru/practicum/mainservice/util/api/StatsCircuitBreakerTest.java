@@ -0,0 +1,114 @@
+package ru.practicum.mainservice.util.api;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StatsCircuitBreakerTest {
+
+    private static final int OPEN_DURATION = 50;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final StatsCircuitBreaker breaker = new StatsCircuitBreaker("test", config(), new SimpleMeterRegistry());
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    //Вызов, начатый в CLOSED, не может закрыть цепь, завершившись уже в HALF_OPEN вместо пробного
+    @Test
+    void callStartedBeforeTripIsNotCountedAsTrial() throws Exception {
+        CountDownLatch releaseOld = new CountDownLatch(1);
+        CompletableFuture<String> old = async(() -> await(releaseOld));
+        trip();
+
+        Thread.sleep(OPEN_DURATION + 10);
+        CountDownLatch releaseTrial = new CountDownLatch(1);
+        CompletableFuture<String> trial = async(() -> await(releaseTrial));
+        waitFor(StatsCircuitBreaker.State.HALF_OPEN);
+
+        releaseOld.countDown();
+        old.get(5, TimeUnit.SECONDS);
+        assertEquals(StatsCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        releaseTrial.countDown();
+        trial.get(5, TimeUnit.SECONDS);
+        assertEquals(StatsCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    //Поздний отказ вызова из прошлого поколения не попадает в окно новой CLOSED и не размыкает цепь заново
+    @Test
+    void lateFailureFromPreviousStateIsIgnored() throws Exception {
+        CountDownLatch releaseOld = new CountDownLatch(1);
+        CompletableFuture<String> old = async(() -> {
+            await(releaseOld);
+            throw new IllegalStateException("late");
+        });
+        trip();
+
+        Thread.sleep(OPEN_DURATION + 10);
+        breaker.call(() -> "trial");
+        breaker.call(() -> "ok");
+        assertEquals(StatsCircuitBreaker.State.CLOSED, breaker.getState());
+
+        releaseOld.countDown();
+        assertThrows(Exception.class, () -> old.get(5, TimeUnit.SECONDS));
+        assertEquals(StatsCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private void trip() {
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IllegalStateException.class, () -> breaker.call(() -> {
+                throw new IllegalStateException("down");
+            }));
+        }
+        assertEquals(StatsCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private CompletableFuture<String> async(Supplier<String> call) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> breaker.call(() -> {
+            started.countDown();
+            return call.get();
+        }), executor);
+        started.await(5, TimeUnit.SECONDS);
+        return future;
+    }
+
+    private void waitFor(StatsCircuitBreaker.State state) throws InterruptedException {
+        for (int i = 0; i < 100 && breaker.getState() != state; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(state, breaker.getState());
+    }
+
+    private static String await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "ok";
+    }
+
+    private static StatsClientProperties.CircuitBreaker config() {
+        StatsClientProperties.CircuitBreaker config = new StatsClientProperties.CircuitBreaker();
+        config.setWindowSize(2);
+        config.setMinimumCalls(2);
+        config.setHalfOpenCalls(1);
+        config.setOpenDuration(OPEN_DURATION);
+        config.setSlowCallThreshold(10000);
+        return config;
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.mainservice.util.budget;
+
+import org.mockito.invocation.Invocation;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.mainservice.util.ApiTestSupport;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mockingDetails;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
+/**
+ * Бюджеты запросов: expectBudget выполняет запрос через MockMvc и проваливает тест, если он выполнил
+ * больше SQL-выражений или обращений к stats-service, чем разрешено. StatsClient заменён моком,
+ * кэш просмотров отключён, чтобы каждый запрос честно показывал свои обращения.
+ * Данные создаются через API вне замера.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "ru.practicum.mainservice.util.budget.CountingStatementInspector",
+        "stats-server.views.cache-ttl=0"
+})
+public abstract class BudgetTestSupport extends ApiTestSupport {
+
+    //makeHits отправляет буфер хитов из фонового потока и к запросу не относится
+    private static final Set<String> STATS_CALLS = Set.of("getEventViews");
+
+    protected MvcResult expectBudget(int statements, int statsCalls, MockHttpServletRequestBuilder request)
+            throws Exception {
+        clearInvocations(statsClient);
+        RequestBudget.begin();
+        MvcResult result;
+        int used;
+        try {
+            result = mvc.perform(request).andReturn();
+            //Асинхронный ответ дописывается отдельным dispatch-ем, в бюджет входят оба
+            if (result.getRequest().isAsyncStarted()) {
+                result = mvc.perform(asyncDispatch(result)).andReturn();
+            }
+        } finally {
+            used = RequestBudget.end();
+        }
+        String endpoint = result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+        int code = result.getResponse().getStatus();
+        assertTrue(code >= 200 && code < 300,
+                endpoint + ": status " + code + " " + result.getResponse().getContentAsString());
+
+        long calls = mockingDetails(statsClient).getInvocations().stream()
+                .map(Invocation::getMethod)
+                .filter(method -> STATS_CALLS.contains(method.getName()))
+                .count();
+        assertTrue(used <= statements, endpoint + ": SQL budget exceeded: " + used + " statements, limit " + statements);
+        assertTrue(calls <= statsCalls, endpoint + ": stats-service budget exceeded: " + calls + " calls, limit "
+                + statsCalls);
+        return result;
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.mainservice.util.budget;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+//Подключается в тестах через hibernate.session_factory.statement_inspector, SQL не изменяет
+public class CountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestBudget.recordStatement();
+        return sql;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.mainservice.util.budget;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Счётчик SQL-выражений одного запроса MockMvc. Запрос выполняется в потоке теста,
+ * поэтому счётчик потоковый: планировщики и буфер хитов в фоне в него не попадают.
+ */
+public final class RequestBudget {
+
+    private static final ThreadLocal<AtomicInteger> STATEMENTS = new ThreadLocal<>();
+
+    private RequestBudget() {
+    }
+
+    static void begin() {
+        STATEMENTS.set(new AtomicInteger());
+    }
+
+    static int end() {
+        AtomicInteger statements = STATEMENTS.get();
+        STATEMENTS.remove();
+        return statements.get();
+    }
+
+    static void recordStatement() {
+        AtomicInteger statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.incrementAndGet();
+        }
+    }
+}
@@ -2,8 +2,13 @@ package ru.practicum.statservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import ru.practicum.common.VirtualThreadsConfig;
 
+@EnableScheduling
 @SpringBootApplication
+@Import(VirtualThreadsConfig.class)
 public class StatServiceApp {
 
     public static void main(String[] args) {
@@ -3,18 +3,26 @@ package ru.practicum.statservice.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.statservice.model.EndpointHitDto;
 import ru.practicum.statservice.model.StatsRequestDto;
+import ru.practicum.statservice.model.UniqueMode;
 import ru.practicum.statservice.model.ViewStatsDto;
 import ru.practicum.statservice.service.EndpointHitsService;
+import ru.practicum.statservice.service.HitsIngestQueue;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -23,14 +31,26 @@ import java.util.List;
 public class EndpointHitsController {
 
     private final EndpointHitsService service;
+    //Есть только при stats.ingest.mode=buffered
+    private final Optional<HitsIngestQueue> ingestQueue;
 
+    //В режиме buffered хит пишется пачкой, id в ответе не возвращается
     @PostMapping("/hit")
-    public EndpointHitDto create(@RequestBody @Valid EndpointHitDto request) {
+    public CompletableFuture<EndpointHitDto> create(@RequestBody @Valid EndpointHitDto request) {
         log.info("Request - Create hit: {}", request);
         if (null != request.getId()) {
             request.setId(null);
         }
-        return service.createHit(request);
+        if (ingestQueue.isPresent()) {
+            return ingestQueue.get().submit(request);
+        }
+        return CompletableFuture.completedFuture(service.createHit(request));
+    }
+
+    @PostMapping("/hits/batch")
+    public void createBatch(@RequestBody List<@Valid EndpointHitDto> request) {
+        log.info("Request - Create hits batch: size={}", request.size());
+        service.createHits(request);
     }
 
     @GetMapping("/stats")
@@ -39,13 +59,17 @@ public class EndpointHitsController {
                                             @RequestParam(name = "end")
                                             @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
                                             @RequestParam(name = "uris", required = false) List<String> uris,
-                                            @RequestParam(name = "unique", defaultValue = "false") Boolean unique) {
+                                            @RequestParam(name = "unique", defaultValue = "false") String unique) {
         //Осталась эта модель (StatsRequestDto) от старой реализации поиска, решил не менять,
         // т.к. проще передавать её в сервис и обновлять
         StatsRequestDto request = new StatsRequestDto();
         request.setStart(start);
         request.setEnd(end);
-        request.setUnique(unique);
+        try {
+            request.setUnique(UniqueMode.from(unique));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
         log.info("Request statistics: {}", request);
 
         if (null == uris || uris.isEmpty()) {
@@ -70,4 +94,11 @@ public class EndpointHitsController {
         //отсортированных по числу вызовов эндпоинтов, и оно может потребоваться
         return service.get(uris, from, size);
     }
+
+    //Просмотры за всё время по id ивентов: id передаются в теле, ответ - карта id -> число хитов
+    @PostMapping("/stats/views")
+    public Map<Integer, Long> getEventViews(@RequestBody List<@NotNull Integer> eventIds) {
+        log.info("Request views for events: size={}", eventIds.size());
+        return service.getEventViews(eventIds);
+    }
 }
@@ -27,4 +27,6 @@ public class EndpointHit {
     private String ip;
     @Column(name = "timestamp", nullable = false)
     private LocalDateTime timestamp;
+    @Column(name = "event_id")
+    private Integer eventId;
 }
\ No newline at end of file
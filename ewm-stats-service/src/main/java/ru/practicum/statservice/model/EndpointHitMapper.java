@@ -2,11 +2,13 @@ package ru.practicum.statservice.model;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import ru.practicum.statservice.util.EventUris;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", imports = EventUris.class)
 public interface EndpointHitMapper {
 
     @Mapping(source = "timestamp", target = "timestamp", dateFormat = "yyyy-MM-dd HH:mm:ss")
+    @Mapping(target = "eventId", expression = "java(EventUris.eventIdOf(dto.getUri()))")
     EndpointHit toEntity(EndpointHitDto dto);
 
     EndpointHitDto toDto(EndpointHit entity);
@@ -0,0 +1,14 @@
+package ru.practicum.statservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class HitsBucketKey {
+    private String uri;
+    private String app;
+    private LocalDateTime bucketStart;
+}
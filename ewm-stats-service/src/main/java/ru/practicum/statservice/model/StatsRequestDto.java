@@ -14,5 +14,5 @@ public class StatsRequestDto {
     private LocalDateTime start;
     private LocalDateTime end;
     private List<String> uris;
-    private Boolean unique;
+    private UniqueMode unique;
 }
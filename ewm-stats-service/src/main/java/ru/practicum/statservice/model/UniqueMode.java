@@ -0,0 +1,19 @@
+package ru.practicum.statservice.model;
+
+public enum UniqueMode {
+    NONE, EXACT, APPROXIMATE;
+
+    //Параметр unique исторически булев, approximate добавлен как третье значение
+    public static UniqueMode from(String unique) {
+        if (unique == null || unique.equalsIgnoreCase("false")) {
+            return NONE;
+        }
+        if (unique.equalsIgnoreCase("true") || unique.equalsIgnoreCase("exact")) {
+            return EXACT;
+        }
+        if (unique.equalsIgnoreCase("approximate")) {
+            return APPROXIMATE;
+        }
+        throw new IllegalArgumentException("Unknown unique mode: " + unique);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.statservice.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class Databases {
+
+    //Upsert-ы пишутся по-разному для PostgreSQL и для H2 из тестового профиля
+    static boolean isPostgres(JdbcTemplate jdbcTemplate) {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(database);
+    }
+}
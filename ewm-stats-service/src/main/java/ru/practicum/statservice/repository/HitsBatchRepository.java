@@ -0,0 +1,42 @@
+package ru.practicum.statservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.statservice.model.EndpointHitDto;
+import ru.practicum.statservice.util.EventUris;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static ru.practicum.statservice.util.DateFormatter.FORMATTER;
+
+/**
+ * Пакетная запись хитов в обход JPA: IDENTITY-ключ не даёт Hibernate батчить insert-ы,
+ * поэтому DTO пишутся напрямую через JDBC batch без создания сущностей.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HitsBatchRepository {
+
+    private static final String INSERT = "INSERT INTO hits (uri, app, ip, timestamp, event_id)" +
+            " VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${stats.ingest.jdbc-batch-size:1000}")
+    private int jdbcBatchSize;
+
+    public void insertAll(List<EndpointHitDto> hits) {
+        jdbcTemplate.batchUpdate(INSERT, hits, jdbcBatchSize, (ps, hit) -> {
+            ps.setString(1, hit.getUri());
+            ps.setString(2, hit.getApp());
+            ps.setString(3, hit.getIp());
+            ps.setTimestamp(4, Timestamp.valueOf(LocalDateTime.parse(hit.getTimestamp(), FORMATTER)));
+            ps.setObject(5, EventUris.eventIdOf(hit.getUri()), Types.INTEGER);
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.statservice.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Месячные секции таблицы hits (только PostgreSQL, см. db/migration/postgresql/V1__hits.sql).
+ * Имя секции - hits_yYYYYmMM, границы - [первое число месяца, первое число следующего).
+ */
+@Slf4j
+@Repository
+public class HitsPartitionRepository {
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'hits_y'yyyy'm'MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean partitioned;
+
+    public HitsPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitioned = Databases.isPostgres(jdbcTemplate);
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    /*
+     * Хиты месяца, для которого ещё нет секции, лежат в hits_default, и CREATE TABLE ... PARTITION OF
+     * на них падает. Поэтому секция создаётся отдельной таблицей, в неё переносятся строки диапазона
+     * из hits_default, и только потом она присоединяется к hits - всё в одной транзакции.
+     */
+    @Transactional
+    public void createPartition(YearMonth month) {
+        String name = partitionName(month);
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+        if (Boolean.TRUE.equals(exists)) {
+            return;
+        }
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE hits INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM hits_default" +
+                " WHERE timestamp >= ? AND timestamp < ? RETURNING *)" +
+                " INSERT INTO " + name + " SELECT * FROM moved", from.atStartOfDay(), to.atStartOfDay());
+        jdbcTemplate.execute("ALTER TABLE hits ATTACH PARTITION " + name +
+                " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        if (moved > 0) {
+            log.info("{} hits moved from hits_default to new partition {}.", moved, name);
+        }
+    }
+
+    //Хиты вне месячных секций удаляются по тому же сроку хранения, что и сами секции
+    public int deleteDefaultBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM hits_default WHERE timestamp < ?", cutoff);
+    }
+
+    //Месячные секции, без hits_default
+    public List<String> findPartitions() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i" +
+                " JOIN pg_class c ON c.oid = i.inhrelid" +
+                " JOIN pg_class p ON p.oid = i.inhparent" +
+                " WHERE p.relname = 'hits' AND c.relname LIKE 'hits\\_y%' ORDER BY c.relname", String.class);
+    }
+
+    public void dropPartition(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(month));
+    }
+
+    public static String partitionName(YearMonth month) {
+        return month.format(PARTITION_NAME);
+    }
+
+    public static YearMonth monthOf(String partitionName) {
+        return YearMonth.parse(partitionName, PARTITION_NAME);
+    }
+}
@@ -1,6 +1,5 @@
 package ru.practicum.statservice.repository;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.statservice.model.EndpointHit;
@@ -12,11 +11,6 @@ import java.util.List;
 public interface HitsRepo extends JpaRepository<EndpointHit, Integer> {
 
     //Для текущей реализации решил, что @Query будет проще и быстрее, поскольку нет большого кол-ва фильтров поиска
-    @Query("select new ru.practicum.statservice.model.ViewStatsDto(e.uri, e.app, count(e.ip)) from EndpointHit as e" +
-            " where e.timestamp between ?1 and ?2 and e.uri in ?3 group by e.app, e.uri" +
-            " order by count(e.ip) desc")
-    List<ViewStatsDto> countEndpointHitsByUri(LocalDateTime start, LocalDateTime end, List<String> uris);
-
     @Query("select new ru.practicum.statservice.model.ViewStatsDto(e.uri, e.app, count(distinct e.ip))" +
             " from EndpointHit as e" +
             " where e.timestamp between ?1 and ?2 and e.uri in ?3 group by e.app, e.uri" +
@@ -24,28 +18,9 @@ public interface HitsRepo extends JpaRepository<EndpointHit, Integer> {
     List<ViewStatsDto> countEndpointHitsByUriWhereUniqueIps(LocalDateTime start,
                                                             LocalDateTime end, List<String> uris);
 
-    //Дополнительно добавил поиск всей статистики без конкретных event
-    @Query("select new ru.practicum.statservice.model.ViewStatsDto(e.uri, e.app, count(e.ip)) from EndpointHit as e" +
-            " where e.timestamp between ?1 and ?2 group by e.app, e.uri" +
-            " order by count(e.ip) desc")
-    List<ViewStatsDto> countEndpointHits(LocalDateTime start, LocalDateTime end);
-
     @Query("select new ru.practicum.statservice.model.ViewStatsDto(e.uri, e.app, count(distinct e.ip))" +
             " from EndpointHit as e" +
             " where e.timestamp between ?1 and ?2 group by e.app, e.uri" +
             " order by count(distinct e.ip) desc")
     List<ViewStatsDto> countEndpointHitsWhereUniqueIps(LocalDateTime start, LocalDateTime end);
-
-    @Query("select new ru.practicum.statservice.model.ViewStatsDto(e.uri, e.app, count(e.ip))" +
-            " from EndpointHit as e" +
-            " where e.uri in (?1)" +
-            " group by e.app, e. uri" +
-            " order by count(e.ip) desc")
-    List<ViewStatsDto> countEndpointHitsWhereIpsIn(List<String> uris);
-
-    @Query("select new ru.practicum.statservice.model.ViewStatsDto(e.uri, e.app, count(e.ip))" +
-            " from EndpointHit as e " +
-            " group by e.app, e. uri" +
-            " order by count(e.ip) desc")
-    List<ViewStatsDto> countEndpointHits(Pageable pageable);
 }
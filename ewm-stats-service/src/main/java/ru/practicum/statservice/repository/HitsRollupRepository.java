@@ -0,0 +1,174 @@
+package ru.practicum.statservice.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.statservice.model.HitsBucketKey;
+import ru.practicum.statservice.model.ViewStatsDto;
+import ru.practicum.statservice.util.EventUris;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Счётчики хитов, предагрегированные по (uri, app, час). Обновляются при записи хитов,
+ * а при чтении статистики заменяют group by по всей таблице hits.
+ */
+@Repository
+public class HitsRollupRepository {
+
+    private static final String UPSERT_POSTGRES = "INSERT INTO hits_rollup (uri, app, bucket_start, hits, event_id)" +
+            " VALUES (?, ?, ?, ?, ?)" +
+            " ON CONFLICT (uri, app, bucket_start) DO UPDATE SET hits = hits_rollup.hits + EXCLUDED.hits";
+
+    /*
+     * В H2 нет ON CONFLICT DO UPDATE, а параллельные MERGE одного нового бакета падали на уникальном ключе -
+     * вместе с транзакцией терялся и сам хит. Поэтому сначала атомарный UPDATE hits = hits + ?, а для бакетов,
+     * которых ещё нет, - INSERT; если бакет успела создать параллельная транзакция, приращение повторяется UPDATE-ом.
+     */
+    private static final String ADD_STANDARD = "UPDATE hits_rollup SET hits = hits + ?" +
+            " WHERE uri = ? AND app = ? AND bucket_start = ?";
+
+    private static final String INSERT_STANDARD = "INSERT INTO hits_rollup (uri, app, bucket_start, hits, event_id)" +
+            " VALUES (?, ?, ?, ?, ?)";
+
+    private static final RowMapper<ViewStatsDto> VIEW_STATS_MAPPER = (rs, rowNum) ->
+            new ViewStatsDto(rs.getString("uri"), rs.getString("app"), rs.getLong("hits"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final boolean postgres;
+
+    public HitsRollupRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.postgres = Databases.isPostgres(jdbcTemplate);
+    }
+
+    public void increment(Map<HitsBucketKey, Long> counters) {
+        //Фиксированный порядок строк, чтобы параллельные пачки не ловили deadlock на одних и тех же счётчиках
+        List<Map.Entry<HitsBucketKey, Long>> entries = new ArrayList<>(counters.entrySet());
+        entries.sort(Map.Entry.comparingByKey(Comparator.comparing(HitsBucketKey::getUri)
+                .thenComparing(HitsBucketKey::getApp)
+                .thenComparing(HitsBucketKey::getBucketStart)));
+
+        if (postgres) {
+            jdbcTemplate.batchUpdate(UPSERT_POSTGRES, entries, entries.size(), (ps, entry) -> {
+                setKey(ps, entry.getKey(), 1);
+                ps.setLong(4, entry.getValue());
+                ps.setObject(5, EventUris.eventIdOf(entry.getKey().getUri()), Types.INTEGER);
+            });
+            return;
+        }
+
+        int[][] updated = jdbcTemplate.batchUpdate(ADD_STANDARD, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getValue());
+            setKey(ps, entry.getKey(), 2);
+        });
+        int i = 0;
+        for (int[] batch : updated) {
+            for (int rows : batch) {
+                Map.Entry<HitsBucketKey, Long> entry = entries.get(i++);
+                if (rows == 0) {
+                    insertOrAdd(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    //Сумма по полным часовым бакетам: bucketFrom включительно, bucketTo - исключительно
+    public List<ViewStatsDto> sumBuckets(LocalDateTime bucketFrom, LocalDateTime bucketTo, List<String> uris) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(bucketFrom))
+                .addValue("to", Timestamp.valueOf(bucketTo));
+        StringBuilder sql = new StringBuilder("SELECT uri, app, SUM(hits) AS hits FROM hits_rollup" +
+                " WHERE bucket_start >= :from AND bucket_start < :to");
+        if (uris != null) {
+            sql.append(" AND uri IN (:uris)");
+            params.addValue("uris", uris);
+        }
+        sql.append(" GROUP BY app, uri");
+        return namedJdbcTemplate.query(sql.toString(), params, VIEW_STATS_MAPPER);
+    }
+
+    public List<ViewStatsDto> sumAll(List<String> uris) {
+        return namedJdbcTemplate.query("SELECT uri, app, SUM(hits) AS hits FROM hits_rollup" +
+                        " WHERE uri IN (:uris) GROUP BY app, uri ORDER BY SUM(hits) DESC",
+                new MapSqlParameterSource("uris", uris), VIEW_STATS_MAPPER);
+    }
+
+    public List<ViewStatsDto> sumAll(long offset, int limit) {
+        return namedJdbcTemplate.query("SELECT uri, app, SUM(hits) AS hits FROM hits_rollup" +
+                        " GROUP BY app, uri ORDER BY SUM(hits) DESC LIMIT :limit OFFSET :offset",
+                new MapSqlParameterSource()
+                        .addValue("limit", limit)
+                        .addValue("offset", offset),
+                VIEW_STATS_MAPPER);
+    }
+
+    //Просмотры ивентов за всё время по числовому event_id, без сравнения строк uri
+    public Map<Integer, Long> sumByEventIds(Collection<Integer> eventIds) {
+        Map<Integer, Long> result = new HashMap<>();
+        namedJdbcTemplate.query("SELECT event_id, SUM(hits) AS hits FROM hits_rollup" +
+                        " WHERE event_id IN (:ids) GROUP BY event_id",
+                new MapSqlParameterSource("ids", eventIds),
+                (RowCallbackHandler) rs -> result.put(rs.getInt("event_id"), rs.getLong("hits")));
+        return result;
+    }
+
+    //Хвосты диапазона, не покрытые полными бакетами, считаются по сырым хитам
+    public List<ViewStatsDto> countRawHits(LocalDateTime from, LocalDateTime to, boolean toInclusive,
+                                           List<String> uris) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+        StringBuilder sql = new StringBuilder("SELECT uri, app, COUNT(ip) AS hits FROM hits" +
+                " WHERE timestamp >= :from AND timestamp ");
+        sql.append(toInclusive ? "<= :to" : "< :to");
+        if (uris != null) {
+            sql.append(" AND uri IN (:uris)");
+            params.addValue("uris", uris);
+        }
+        sql.append(" GROUP BY app, uri");
+        return namedJdbcTemplate.query(sql.toString(), params, VIEW_STATS_MAPPER);
+    }
+
+    //Бакеты, начавшиеся раньше cutoff: вызывается вместе с удалением старых секций hits
+    public int deleteBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM hits_rollup WHERE bucket_start < ?", Timestamp.valueOf(cutoff));
+    }
+
+    private void insertOrAdd(HitsBucketKey key, long hits) {
+        try {
+            jdbcTemplate.update(INSERT_STANDARD, ps -> {
+                setKey(ps, key, 1);
+                ps.setLong(4, hits);
+                ps.setObject(5, EventUris.eventIdOf(key.getUri()), Types.INTEGER);
+            });
+        } catch (DuplicateKeyException e) {
+            jdbcTemplate.update(ADD_STANDARD, ps -> {
+                ps.setLong(1, hits);
+                setKey(ps, key, 2);
+            });
+        }
+    }
+
+    private static void setKey(PreparedStatement ps, HitsBucketKey key, int from) throws SQLException {
+        ps.setString(from, key.getUri());
+        ps.setString(from + 1, key.getApp());
+        ps.setTimestamp(from + 2, Timestamp.valueOf(key.getBucketStart()));
+    }
+}
@@ -0,0 +1,154 @@
+package ru.practicum.statservice.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.statservice.model.HitsBucketKey;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * HyperLogLog-скетчи уникальных IP по (uri, app, час). Скетч нельзя обновить одним SQL-выражением,
+ * поэтому строки сначала создаются пустыми, затем блокируются, сливаются в памяти и перезаписываются.
+ */
+@Repository
+public class HitsSketchRepository {
+
+    private static final Comparator<HitsBucketKey> KEY_ORDER = Comparator.comparing(HitsBucketKey::getUri)
+            .thenComparing(HitsBucketKey::getApp)
+            .thenComparing(HitsBucketKey::getBucketStart);
+
+    private static final String CREATE_EMPTY_POSTGRES = "INSERT INTO hits_sketches (uri, app, bucket_start, sketch)" +
+            " VALUES (?, ?, ?, '') ON CONFLICT (uri, app, bucket_start) DO NOTHING";
+
+    //H2: вставка по одной строке, уже созданную (в том числе параллельной транзакцией) пропускаем
+    private static final String CREATE_EMPTY_STANDARD = "INSERT INTO hits_sketches (uri, app, bucket_start, sketch)" +
+            " VALUES (?, ?, ?, X'')";
+
+    private static final ParameterizedPreparedStatementSetter<HitsBucketKey> KEY_SETTER = (ps, key) -> {
+        ps.setString(1, key.getUri());
+        ps.setString(2, key.getApp());
+        ps.setTimestamp(3, Timestamp.valueOf(key.getBucketStart()));
+    };
+
+    private static final String UPDATE = "UPDATE hits_sketches SET sketch = ?" +
+            " WHERE uri = ? AND app = ? AND bucket_start = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final boolean postgres;
+
+    public HitsSketchRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.postgres = Databases.isPostgres(jdbcTemplate);
+    }
+
+    //Должен вызываться внутри транзакции: строки остаются заблокированными до updateAll
+    public Map<HitsBucketKey, byte[]> lockAll(Set<HitsBucketKey> keys) {
+        List<HitsBucketKey> sorted = new ArrayList<>(keys);
+        sorted.sort(KEY_ORDER);
+        if (postgres) {
+            jdbcTemplate.batchUpdate(CREATE_EMPTY_POSTGRES, sorted, sorted.size(), KEY_SETTER);
+        } else {
+            for (HitsBucketKey key : sorted) {
+                try {
+                    jdbcTemplate.update(CREATE_EMPTY_STANDARD, ps -> KEY_SETTER.setValues(ps, key));
+                } catch (DuplicateKeyException e) {
+                    //Строка уже есть - дальше она блокируется как обычно
+                }
+            }
+        }
+
+        Set<String> uris = new HashSet<>();
+        Set<Timestamp> buckets = new HashSet<>();
+        for (HitsBucketKey key : keys) {
+            uris.add(key.getUri());
+            buckets.add(Timestamp.valueOf(key.getBucketStart()));
+        }
+        Map<HitsBucketKey, byte[]> result = new HashMap<>();
+        namedJdbcTemplate.query("SELECT uri, app, bucket_start, sketch FROM hits_sketches" +
+                        " WHERE uri IN (:uris) AND bucket_start IN (:buckets)" +
+                        " ORDER BY uri, app, bucket_start FOR UPDATE",
+                new MapSqlParameterSource()
+                        .addValue("uris", uris)
+                        .addValue("buckets", buckets),
+                (RowCallbackHandler) rs -> {
+                    HitsBucketKey key = new HitsBucketKey(rs.getString("uri"), rs.getString("app"),
+                            rs.getTimestamp("bucket_start").toLocalDateTime());
+                    if (keys.contains(key)) {
+                        result.put(key, rs.getBytes("sketch"));
+                    }
+                });
+        return result;
+    }
+
+    public void updateAll(Map<HitsBucketKey, byte[]> sketches) {
+        List<Map.Entry<HitsBucketKey, byte[]>> entries = new ArrayList<>(sketches.entrySet());
+        entries.sort(Map.Entry.comparingByKey(KEY_ORDER));
+        jdbcTemplate.batchUpdate(UPDATE, entries, entries.size(), (ps, entry) -> {
+            ps.setBytes(1, entry.getValue());
+            ps.setString(2, entry.getKey().getUri());
+            ps.setString(3, entry.getKey().getApp());
+            ps.setTimestamp(4, Timestamp.valueOf(entry.getKey().getBucketStart()));
+        });
+    }
+
+    //Скетчи полных часовых бакетов: bucketFrom включительно, bucketTo - исключительно
+    public void findSketches(LocalDateTime bucketFrom, LocalDateTime bucketTo, List<String> uris,
+                             SketchConsumer consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(bucketFrom))
+                .addValue("to", Timestamp.valueOf(bucketTo));
+        StringBuilder sql = new StringBuilder("SELECT uri, app, sketch FROM hits_sketches" +
+                " WHERE bucket_start >= :from AND bucket_start < :to");
+        if (uris != null) {
+            sql.append(" AND uri IN (:uris)");
+            params.addValue("uris", uris);
+        }
+        namedJdbcTemplate.query(sql.toString(), params, (RowCallbackHandler) rs ->
+                consumer.accept(rs.getString("uri"), rs.getString("app"), rs.getBytes("sketch")));
+    }
+
+    //IP хитов из неполных краёв диапазона, без загрузки всей выборки в память
+    public void findRawIps(LocalDateTime from, LocalDateTime to, boolean toInclusive, List<String> uris,
+                           IpConsumer consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+        StringBuilder sql = new StringBuilder("SELECT uri, app, ip FROM hits WHERE timestamp >= :from AND timestamp ");
+        sql.append(toInclusive ? "<= :to" : "< :to");
+        if (uris != null) {
+            sql.append(" AND uri IN (:uris)");
+            params.addValue("uris", uris);
+        }
+        namedJdbcTemplate.query(sql.toString(), params, (RowCallbackHandler) rs ->
+                consumer.accept(rs.getString("uri"), rs.getString("app"), rs.getString("ip")));
+    }
+
+    public int deleteBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM hits_sketches WHERE bucket_start < ?", Timestamp.valueOf(cutoff));
+    }
+
+    @FunctionalInterface
+    public interface SketchConsumer {
+        void accept(String uri, String app, byte[] sketch);
+    }
+
+    @FunctionalInterface
+    public interface IpConsumer {
+        void accept(String uri, String app, String ip);
+    }
+}
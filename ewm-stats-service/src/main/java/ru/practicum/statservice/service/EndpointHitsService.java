@@ -1,5 +1,8 @@
 package ru.practicum.statservice.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
@@ -7,40 +10,102 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
 import ru.practicum.statservice.model.*;
+import ru.practicum.statservice.repository.HitsBatchRepository;
 import ru.practicum.statservice.repository.HitsRepo;
+import ru.practicum.statservice.util.HyperLogLog;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+import static ru.practicum.statservice.util.DateFormatter.FORMATTER;
 
 @Slf4j
 @Service
 public class EndpointHitsService {
 
     private final HitsRepo repo;
+    private final HitsBatchRepository batchRepo;
     private final EndpointHitMapper mapper;
+    private final HitsRollupService rollupService;
+    private final HitsSketchService sketchService;
+    private final Counter ingested;
+    private final Timer singleInsertTimer;
+    private final Timer batchInsertTimer;
 
     @Autowired
-    public EndpointHitsService(HitsRepo repo, EndpointHitMapper mapper) {
+    public EndpointHitsService(HitsRepo repo, HitsBatchRepository batchRepo, EndpointHitMapper mapper,
+                               HitsRollupService rollupService, HitsSketchService sketchService,
+                               MeterRegistry registry) {
         this.repo = repo;
+        this.batchRepo = batchRepo;
         this.mapper = mapper;
+        this.rollupService = rollupService;
+        this.sketchService = sketchService;
+        //Пропускная способность приёма: hits/s считается по счётчику, стоимость записи - по таймерам
+        this.ingested = Counter.builder("stats.hits.ingested").register(registry);
+        this.singleInsertTimer = Timer.builder("stats.hits.insert").tag("path", "single").register(registry);
+        this.batchInsertTimer = Timer.builder("stats.hits.insert").tag("path", "batch").register(registry);
     }
 
+    /*
+     * Счётчик и скетч бакета пишутся в одной транзакции с сырым хитом: упавший процесс не теряет приращения.
+     * Горячие uri при этом сериализуются на строке hits_rollup - под нагрузкой для этого есть буферный приём
+     * (stats.ingest.mode=buffered), который складывает хиты в пачки через createHits.
+     */
     @Transactional
     public EndpointHitDto createHit(EndpointHitDto dto) {
         log.info("Create hit for URI={}", dto.getUri());
         EndpointHit hit = mapper.toEntity(dto);
 
-        return mapper.toDto(repo.save(hit));
+        EndpointHit result = singleInsertTimer.record(() -> repo.save(hit));
+        HitsBucketKey key = new HitsBucketKey(hit.getUri(), hit.getApp(),
+                HitsRollupService.bucketOf(hit.getTimestamp()));
+        HyperLogLog sketch = sketchService.newSketch();
+        sketch.offer(hit.getIp());
+        rollupService.record(Map.of(key, 1L));
+        sketchService.record(Map.of(key, sketch));
+        ingested.increment();
+        return mapper.toDto(result);
+    }
+
+    @Transactional
+    public void createHits(List<EndpointHitDto> dtos) {
+        log.info("Create hits batch: size={}", dtos.size());
+        String now = LocalDateTime.now().format(FORMATTER);
+        Map<HitsBucketKey, Long> counters = new HashMap<>();
+        Map<HitsBucketKey, HyperLogLog> sketches = new HashMap<>();
+        for (EndpointHitDto dto : dtos) {
+            if (dto.getTimestamp() == null) {
+                dto.setTimestamp(now);
+            }
+            LocalDateTime bucket = HitsRollupService.bucketOf(LocalDateTime.parse(dto.getTimestamp(), FORMATTER));
+            HitsBucketKey key = new HitsBucketKey(dto.getUri(), dto.getApp(), bucket);
+            counters.merge(key, 1L, Long::sum);
+            sketches.computeIfAbsent(key, k -> sketchService.newSketch()).offer(dto.getIp());
+        }
+
+        batchInsertTimer.record(() -> batchRepo.insertAll(dtos));
+        rollupService.record(counters);
+        sketchService.record(sketches);
+        ingested.increment(dtos.size());
     }
 
     @Transactional(readOnly = true)
     public List<ViewStatsDto> getStatistics(StatsRequestDto req) {
         List<ViewStatsDto> result;
 
-        if (req.getUnique()) {
-            result = repo.countEndpointHitsByUriWhereUniqueIps(req.getStart(), req.getEnd(), req.getUris());
-        } else {
-            result = repo.countEndpointHitsByUri(req.getStart(), req.getEnd(), req.getUris());
+        switch (req.getUnique()) {
+            case EXACT:
+                result = repo.countEndpointHitsByUriWhereUniqueIps(req.getStart(), req.getEnd(), req.getUris());
+                break;
+            case APPROXIMATE:
+                result = sketchService.countUniqueHits(req.getStart(), req.getEnd(), req.getUris());
+                break;
+            default:
+                result = rollupService.countHits(req.getStart(), req.getEnd(), req.getUris());
         }
 
         return result;
@@ -50,10 +115,15 @@ public class EndpointHitsService {
     public List<ViewStatsDto> getAllStatistic(StatsRequestDto req) {
         List<ViewStatsDto> result;
 
-        if (req.getUnique()) {
-            result = repo.countEndpointHitsWhereUniqueIps(req.getStart(), req.getEnd());
-        } else {
-            result = repo.countEndpointHits(req.getStart(), req.getEnd());
+        switch (req.getUnique()) {
+            case EXACT:
+                result = repo.countEndpointHitsWhereUniqueIps(req.getStart(), req.getEnd());
+                break;
+            case APPROXIMATE:
+                result = sketchService.countUniqueHits(req.getStart(), req.getEnd(), null);
+                break;
+            default:
+                result = rollupService.countHits(req.getStart(), req.getEnd(), null);
         }
 
         return result;
@@ -64,9 +134,17 @@ public class EndpointHitsService {
         Pageable page = PageRequest.of(from / size, size);
         if (uris != null && !uris.isEmpty()) {
             log.debug("Search for arrays: {}", Arrays.toString(uris.toArray()));
-            return repo.countEndpointHitsWhereIpsIn(uris);
+            return rollupService.countAllHits(uris);
         } else {
-            return repo.countEndpointHits(page);
+            return rollupService.countAllHits(page.getOffset(), page.getPageSize());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Integer, Long> getEventViews(List<Integer> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Map.of();
         }
+        return rollupService.countEventViews(eventIds);
     }
 }
@@ -0,0 +1,178 @@
+package ru.practicum.statservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.statservice.model.EndpointHitDto;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Буферизованный приём /hit (stats.ingest.mode=buffered): запрос кладёт хит в очередь и освобождает
+ * поток Tomcat, а один фоновый поток пишет накопленное пачкой через createHits - одна транзакция
+ * и одно соединение на пачку вместо insert-а на каждый хит. Ответ клиенту уходит после коммита пачки.
+ * Очередь ограничена: когда запись не успевает, новые хиты получают 503, а не копятся в памяти.
+ * <p>
+ * Остановка не прерывает поток записи: прерывание могло оборвать JDBC-запись посреди пачки.
+ * stop() только снимает флаг running, писатель дописывает очередь и выходит сам; остаток,
+ * принятый после его последней проверки, дописывается уже после его завершения.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "stats.ingest.mode", havingValue = "buffered")
+public class HitsIngestQueue {
+
+    private final EndpointHitsService service;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long shutdownTimeoutMs;
+
+    private final Counter rejected;
+    private final DistributionSummary batchSizes;
+
+    private Thread writer;
+    private volatile boolean running;
+
+    public HitsIngestQueue(EndpointHitsService service,
+                           MeterRegistry registry,
+                           @Value("${stats.ingest.buffer.capacity:10000}") int capacity,
+                           @Value("${stats.ingest.buffer.batch-size:1000}") int batchSize,
+                           @Value("${stats.ingest.buffer.flush-interval:20}") long flushIntervalMs,
+                           @Value("${stats.ingest.buffer.shutdown-timeout:30000}") long shutdownTimeoutMs) {
+        this.service = service;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+
+        Gauge.builder("stats.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Hits accepted but not yet written")
+                .register(registry);
+        this.rejected = Counter.builder("stats.ingest.rejected")
+                .register(registry);
+        this.batchSizes = DistributionSummary.builder("stats.ingest.batch.size")
+                .register(registry);
+    }
+
+    public CompletableFuture<EndpointHitDto> submit(EndpointHitDto hit) {
+        if (!running) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Hits ingest is stopping");
+        }
+        Pending pending = new Pending(hit);
+        if (!queue.offer(pending)) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Hits ingest queue is full");
+        }
+        return pending.result;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::runWriter, "stats-ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Buffered hits ingest started: capacity={}, batchSize={}, flushInterval={}ms",
+                queue.remainingCapacity(), batchSize, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(shutdownTimeoutMs);
+        if (writer.isAlive()) {
+            //Писатель ещё пишет: дозаписывать очередь параллельно с ним нельзя
+            log.error("Buffered hits writer did not finish in {} ms, {} hits left unwritten", shutdownTimeoutMs,
+                    queue.size());
+            return;
+        }
+        //Писатель завершился: дописываем то, что успели принять после его последней проверки очереди
+        List<Pending> rest = new ArrayList<>();
+        while (queue.drainTo(rest, batchSize) > 0) {
+            write(rest);
+            rest = new ArrayList<>();
+        }
+    }
+
+    //После stop() дописывает всё, что уже в очереди, и выходит: клиенты этих хитов ждут ответа
+    private void runWriter() {
+        while (running || !queue.isEmpty()) {
+            List<Pending> batch = new ArrayList<>(batchSize);
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                //Поток никто не прерывает; если всё же прервали - выходим, остаток допишет stop()
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+            }
+        }
+    }
+
+    //Ждём первый хит, затем добираем пачку в пределах flush-interval: под нагрузкой пачки полные,
+    // в простое одиночный хит ждёт не дольше интервала. Ожидание ограничено, чтобы писатель замечал stop()
+    private void collect(List<Pending> batch) throws InterruptedException {
+        Pending first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long left = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || left <= 0) {
+                return;
+            }
+            Pending next = queue.poll(left, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<EndpointHitDto> hits = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            hits.add(pending.hit);
+        }
+        try {
+            service.createHits(hits);
+            batchSizes.record(batch.size());
+            log.debug("Buffered hits written: {}", batch.size());
+            batch.forEach(pending -> pending.result.complete(pending.hit));
+        } catch (RuntimeException e) {
+            log.error("Buffered hits write failed, {} hits rejected: {}", batch.size(), e.getMessage());
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+        }
+    }
+
+    private static class Pending {
+        private final EndpointHitDto hit;
+        private final CompletableFuture<EndpointHitDto> result = new CompletableFuture<>();
+
+        Pending(EndpointHitDto hit) {
+            this.hit = hit;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.statservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.statservice.repository.HitsPartitionRepository;
+import ru.practicum.statservice.repository.HitsRollupRepository;
+import ru.practicum.statservice.repository.HitsSketchRepository;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Заранее создаёт месячные секции hits и удаляет секции старше срока хранения.
+ * Хиты месяца без секции попадают в hits_default; при создании секции они переносятся в неё,
+ * а устаревшие хиты из hits_default удаляются вместе со старыми секциями.
+ * Вместе со старыми секциями удаляются часовые счётчики и скетчи тех же месяцев: статистика за период,
+ * хиты которого уже удалены, не должна собираться из оставшихся агрегатов.
+ */
+@Slf4j
+@Service
+public class HitsPartitionService {
+
+    private final HitsPartitionRepository partitionRepo;
+    private final HitsRollupRepository rollupRepo;
+    private final HitsSketchRepository sketchRepo;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public HitsPartitionService(HitsPartitionRepository partitionRepo,
+                                HitsRollupRepository rollupRepo,
+                                HitsSketchRepository sketchRepo,
+                                @Value("${stats.partitions.months-ahead:3}") int monthsAhead,
+                                @Value("${stats.partitions.retention-months:0}") int retentionMonths) {
+        this.partitionRepo = partitionRepo;
+        this.rollupRepo = rollupRepo;
+        this.sketchRepo = sketchRepo;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${stats.partitions.check-interval:3600000}")
+    public void maintainPartitions() {
+        if (!partitionRepo.isPartitioned()) {
+            log.debug("Hits table is not partitioned, skip partitions maintenance.");
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            try {
+                partitionRepo.createPartition(month);
+            } catch (DataAccessException e) {
+                log.error("Can't create hits partition {}: {}", HitsPartitionRepository.partitionName(month),
+                        e.getMessage());
+            }
+        }
+
+        //0 - хранить всё
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            for (String partition : partitionRepo.findPartitions()) {
+                YearMonth month = HitsPartitionRepository.monthOf(partition);
+                if (month.isBefore(oldestKept)) {
+                    partitionRepo.dropPartition(month);
+                    log.info("Hits partition {} dropped by retention ({} months).", partition, retentionMonths);
+                }
+            }
+            LocalDateTime cutoff = oldestKept.atDay(1).atStartOfDay();
+            int outside = partitionRepo.deleteDefaultBefore(cutoff);
+            if (outside > 0) {
+                log.info("{} hits before {} dropped from hits_default by retention.", outside, cutoff);
+            }
+            int rollups = rollupRepo.deleteBefore(cutoff);
+            int sketches = sketchRepo.deleteBefore(cutoff);
+            if (rollups > 0 || sketches > 0) {
+                log.info("Hits aggregates before {} dropped by retention: {} counters, {} sketches.", cutoff,
+                        rollups, sketches);
+            }
+        }
+    }
+}
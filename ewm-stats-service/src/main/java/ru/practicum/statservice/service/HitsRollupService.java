@@ -0,0 +1,94 @@
+package ru.practicum.statservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.statservice.model.HitsBucketKey;
+import ru.practicum.statservice.model.ViewStatsDto;
+import ru.practicum.statservice.repository.HitsRollupRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HitsRollupService {
+
+    private static final ChronoUnit BUCKET = ChronoUnit.HOURS;
+
+    private final HitsRollupRepository rollupRepo;
+
+    public static LocalDateTime bucketOf(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(BUCKET);
+    }
+
+    @Transactional
+    public void record(Map<HitsBucketKey, Long> counters) {
+        if (!counters.isEmpty()) {
+            rollupRepo.increment(counters);
+        }
+    }
+
+    /*
+     * Диапазон [start, end] делится на полные часовые бакеты, которые берутся из hits_rollup,
+     * и два неполных края, которые досчитываются по сырым хитам.
+     */
+    @Transactional(readOnly = true)
+    public List<ViewStatsDto> countHits(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        LocalDateTime firstFull = bucketOf(start);
+        if (firstFull.isBefore(start)) {
+            firstFull = firstFull.plus(1, BUCKET);
+        }
+        LocalDateTime lastFullEnd = bucketOf(end);
+
+        if (!firstFull.isBefore(lastFullEnd)) {
+            log.debug("Range {} - {} has no full buckets, counting raw hits.", start, end);
+            return sortByHits(rollupRepo.countRawHits(start, end, true, uris));
+        }
+
+        Map<String, ViewStatsDto> merged = new HashMap<>();
+        merge(merged, rollupRepo.sumBuckets(firstFull, lastFullEnd, uris));
+        if (start.isBefore(firstFull)) {
+            merge(merged, rollupRepo.countRawHits(start, firstFull, false, uris));
+        }
+        merge(merged, rollupRepo.countRawHits(lastFullEnd, end, true, uris));
+        return sortByHits(new ArrayList<>(merged.values()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ViewStatsDto> countAllHits(List<String> uris) {
+        return rollupRepo.sumAll(uris);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ViewStatsDto> countAllHits(long offset, int limit) {
+        return rollupRepo.sumAll(offset, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Integer, Long> countEventViews(Collection<Integer> eventIds) {
+        return rollupRepo.sumByEventIds(eventIds);
+    }
+
+    private static void merge(Map<String, ViewStatsDto> merged, List<ViewStatsDto> part) {
+        for (ViewStatsDto stats : part) {
+            merged.merge(stats.getApp() + '\n' + stats.getUri(), stats, (old, add) -> {
+                old.setHits(old.getHits() + add.getHits());
+                return old;
+            });
+        }
+    }
+
+    private static List<ViewStatsDto> sortByHits(List<ViewStatsDto> stats) {
+        stats.sort(Comparator.comparing(ViewStatsDto::getHits).reversed());
+        return stats;
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.statservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.statservice.model.HitsBucketKey;
+import ru.practicum.statservice.model.ViewStatsDto;
+import ru.practicum.statservice.repository.HitsSketchRepository;
+import ru.practicum.statservice.util.HyperLogLog;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class HitsSketchService {
+
+    private final HitsSketchRepository sketchRepo;
+    private final int precision;
+
+    public HitsSketchService(HitsSketchRepository sketchRepo,
+                             @Value("${stats.unique.approximate.relative-error:0.02}") double relativeError) {
+        this.sketchRepo = sketchRepo;
+        this.precision = HyperLogLog.precisionFor(relativeError);
+        log.info("Unique visitors sketches: relative error={}, precision={}", relativeError, precision);
+    }
+
+    public HyperLogLog newSketch() {
+        return new HyperLogLog(precision);
+    }
+
+    @Transactional
+    public void record(Map<HitsBucketKey, HyperLogLog> sketches) {
+        if (sketches.isEmpty()) {
+            return;
+        }
+        Map<HitsBucketKey, byte[]> stored = sketchRepo.lockAll(sketches.keySet());
+        Map<HitsBucketKey, byte[]> updated = new HashMap<>();
+        for (Map.Entry<HitsBucketKey, HyperLogLog> entry : sketches.entrySet()) {
+            HyperLogLog merged = HyperLogLog.fromBytes(stored.get(entry.getKey()), precision)
+                    .merge(entry.getValue());
+            updated.put(entry.getKey(), merged.toBytes());
+        }
+        sketchRepo.updateAll(updated);
+    }
+
+    //Та же схема, что и для счётчиков: полные часы из скетчей, края диапазона - по сырым IP
+    @Transactional(readOnly = true)
+    public List<ViewStatsDto> countUniqueHits(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        Map<String, ViewStatsDto> keys = new HashMap<>();
+        Map<String, HyperLogLog> sketches = new HashMap<>();
+
+        LocalDateTime firstFull = HitsRollupService.bucketOf(start);
+        if (firstFull.isBefore(start)) {
+            firstFull = firstFull.plus(1, ChronoUnit.HOURS);
+        }
+        LocalDateTime lastFullEnd = HitsRollupService.bucketOf(end);
+
+        HitsSketchRepository.IpConsumer rawIps = (uri, app, ip) ->
+                sketchFor(keys, sketches, uri, app).offer(ip);
+        if (!firstFull.isBefore(lastFullEnd)) {
+            sketchRepo.findRawIps(start, end, true, uris, rawIps);
+        } else {
+            sketchRepo.findSketches(firstFull, lastFullEnd, uris, (uri, app, bytes) -> {
+                String key = app + '\n' + uri;
+                HyperLogLog stored = HyperLogLog.fromBytes(bytes, precision);
+                sketchFor(keys, sketches, uri, app);
+                sketches.put(key, sketches.get(key).merge(stored));
+            });
+            if (start.isBefore(firstFull)) {
+                sketchRepo.findRawIps(start, firstFull, false, uris, rawIps);
+            }
+            sketchRepo.findRawIps(lastFullEnd, end, true, uris, rawIps);
+        }
+
+        List<ViewStatsDto> result = new ArrayList<>();
+        for (Map.Entry<String, ViewStatsDto> entry : keys.entrySet()) {
+            ViewStatsDto stats = entry.getValue();
+            stats.setHits(sketches.get(entry.getKey()).cardinality());
+            result.add(stats);
+        }
+        result.sort(Comparator.comparing(ViewStatsDto::getHits).reversed());
+        return result;
+    }
+
+    private HyperLogLog sketchFor(Map<String, ViewStatsDto> keys, Map<String, HyperLogLog> sketches,
+                                  String uri, String app) {
+        String key = app + '\n' + uri;
+        keys.computeIfAbsent(key, k -> new ViewStatsDto(uri, app, 0L));
+        return sketches.computeIfAbsent(key, k -> newSketch());
+    }
+}
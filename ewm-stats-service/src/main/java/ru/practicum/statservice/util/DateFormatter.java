@@ -0,0 +1,8 @@
+package ru.practicum.statservice.util;
+
+import java.time.format.DateTimeFormatter;
+
+public class DateFormatter {
+
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+}
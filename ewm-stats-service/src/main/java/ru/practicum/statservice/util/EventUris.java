@@ -0,0 +1,28 @@
+package ru.practicum.statservice.util;
+
+public final class EventUris {
+
+    private static final String EVENTS_PREFIX = "/events/";
+
+    private EventUris() {
+    }
+
+    //Id ивента из uri вида /events/{id}; для остальных uri - null
+    public static Integer eventIdOf(String uri) {
+        if (uri == null || uri.length() <= EVENTS_PREFIX.length() || !uri.startsWith(EVENTS_PREFIX)) {
+            return null;
+        }
+        long id = 0;
+        for (int i = EVENTS_PREFIX.length(); i < uri.length(); i++) {
+            char c = uri.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            id = id * 10 + (c - '0');
+            if (id > Integer.MAX_VALUE) {
+                return null;
+            }
+        }
+        return (int) id;
+    }
+}
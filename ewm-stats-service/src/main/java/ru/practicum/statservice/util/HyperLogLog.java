@@ -0,0 +1,186 @@
+package ru.practicum.statservice.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog для приблизительного подсчёта уникальных IP.
+ * Относительная ошибка оценки ~ 1.04 / sqrt(2^precision); скетчи с разной точностью
+ * сливаются сворачиванием к меньшей точности.
+ */
+public class HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 16;
+
+    private static final byte DENSE = 0;
+    private static final byte SPARSE = 1;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("HyperLogLog precision must be in [" + MIN_PRECISION + ", "
+                    + MAX_PRECISION + "], got " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    //Минимальная точность, при которой стандартная ошибка не превышает relativeError
+    public static int precisionFor(double relativeError) {
+        if (relativeError <= 0 || relativeError >= 1) {
+            throw new IllegalArgumentException("Relative error must be in (0, 1), got " + relativeError);
+        }
+        double registersNeeded = Math.pow(1.04 / relativeError, 2);
+        int precision = (int) Math.ceil(Math.log(registersNeeded) / Math.log(2));
+        return Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision));
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public void offer(String value) {
+        long hash = hash(value);
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        //Сторожевой бит ограничивает ранг, если все оставшиеся биты хэша нулевые
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (registers[index] < rank) {
+            registers[index] = rank;
+        }
+    }
+
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision < precision) {
+            return other.merge(this);
+        }
+        HyperLogLog source = other.precision == precision ? other : other.fold(precision);
+        HyperLogLog result = copy();
+        for (int i = 0; i < result.registers.length; i++) {
+            if (result.registers[i] < source.registers[i]) {
+                result.registers[i] = source.registers[i];
+            }
+        }
+        return result;
+    }
+
+    public long cardinality() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        //На малых множествах точнее линейный подсчёт по пустым регистрам
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public byte[] toBytes() {
+        int nonZero = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                nonZero++;
+            }
+        }
+        //Для часовых бакетов с небольшим числом хитов разреженный формат в разы компактнее
+        if (nonZero * 3 < registers.length) {
+            ByteBuffer buffer = ByteBuffer.allocate(2 + nonZero * 3);
+            buffer.put(SPARSE).put((byte) precision);
+            for (int i = 0; i < registers.length; i++) {
+                if (registers[i] != 0) {
+                    buffer.putShort((short) i).put(registers[i]);
+                }
+            }
+            return buffer.array();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(2 + registers.length);
+        buffer.put(DENSE).put((byte) precision).put(registers);
+        return buffer.array();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes, int defaultPrecision) {
+        if (bytes == null || bytes.length == 0) {
+            return new HyperLogLog(defaultPrecision);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte format = buffer.get();
+        HyperLogLog result = new HyperLogLog(buffer.get());
+        if (format == SPARSE) {
+            while (buffer.hasRemaining()) {
+                int index = Short.toUnsignedInt(buffer.getShort());
+                result.registers[index] = buffer.get();
+            }
+        } else {
+            buffer.get(result.registers);
+        }
+        return result;
+    }
+
+    private HyperLogLog copy() {
+        HyperLogLog result = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, result.registers, 0, registers.length);
+        return result;
+    }
+
+    /*
+     * Уменьшение точности: младшие биты старого индекса становятся старшими битами
+     * оставшейся части хэша, из них пересчитывается ранг.
+     */
+    private HyperLogLog fold(int targetPrecision) {
+        HyperLogLog result = new HyperLogLog(targetPrecision);
+        int shift = precision - targetPrecision;
+        int lowMask = (1 << shift) - 1;
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] == 0) {
+                continue;
+            }
+            int low = i & lowMask;
+            int rank = low != 0
+                    ? shift - (Integer.SIZE - Integer.numberOfLeadingZeros(low)) + 1
+                    : shift + registers[i];
+            int index = i >>> shift;
+            if (result.registers[index] < rank) {
+                result.registers[index] = (byte) rank;
+            }
+        }
+        return result;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    //FNV-1a с финализатором MurmurHash3: IP-адреса короткие и похожие, без перемешивания биты распределены плохо
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
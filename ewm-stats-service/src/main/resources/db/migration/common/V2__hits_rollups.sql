@@ -0,0 +1,20 @@
+CREATE TABLE hits_rollup
+(
+    uri          VARCHAR                     NOT NULL,
+    app          VARCHAR                     NOT NULL,
+    bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    hits         BIGINT                      NOT NULL,
+    event_id     INTEGER,
+    CONSTRAINT pk_hits_rollup PRIMARY KEY (uri, app, bucket_start)
+);
+
+CREATE INDEX idx_hits_rollup_event_id ON hits_rollup (event_id);
+
+CREATE TABLE hits_sketches
+(
+    uri          VARCHAR                     NOT NULL,
+    app          VARCHAR                     NOT NULL,
+    bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    sketch       BYTEA                       NOT NULL,
+    CONSTRAINT pk_hits_sketches PRIMARY KEY (uri, app, bucket_start)
+);
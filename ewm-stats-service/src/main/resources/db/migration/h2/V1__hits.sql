@@ -0,0 +1,15 @@
+-- H2 (профиль ci,test) не поддерживает секционирование: обычная таблица с теми же индексами
+CREATE TABLE hits
+(
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    uri       VARCHAR                                 NOT NULL,
+    app       VARCHAR                                 NOT NULL,
+    ip        VARCHAR                                 NOT NULL,
+    timestamp TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    event_id  INTEGER,
+    CONSTRAINT pk_hit PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_hits_timestamp ON hits (timestamp);
+CREATE INDEX idx_hits_uri_timestamp_ip ON hits (uri, timestamp, ip);
+CREATE INDEX idx_hits_event_id ON hits (event_id);
@@ -0,0 +1,39 @@
+-- Хиты секционированы по месяцам: запросы за период читают только нужные секции,
+-- а старые данные удаляются целыми секциями (HitsPartitionService).
+-- IDENTITY на секционированной таблице в PostgreSQL 14 не поддерживается, поэтому id - bigserial,
+-- а первичный ключ обязан включать ключ секционирования.
+CREATE TABLE hits
+(
+    id        BIGSERIAL                   NOT NULL,
+    uri       VARCHAR                     NOT NULL,
+    app       VARCHAR                     NOT NULL,
+    ip        VARCHAR                     NOT NULL,
+    timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    event_id  INTEGER,
+    CONSTRAINT pk_hit PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+-- Хиты вне созданных месячных секций (например, с датами из прошлого)
+CREATE TABLE hits_default PARTITION OF hits DEFAULT;
+
+-- Секции на текущий и следующий месяц; дальше их создаёт HitsPartitionService
+DO
+$$
+    DECLARE
+        month_start DATE;
+    BEGIN
+        FOR i IN 0..1
+            LOOP
+                month_start := (date_trunc('month', now()) + make_interval(months => i))::DATE;
+                EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF hits FOR VALUES FROM (%L) TO (%L)',
+                               'hits_' || to_char(month_start, '"y"YYYY"m"MM'),
+                               month_start, (month_start + INTERVAL '1 month')::DATE);
+            END LOOP;
+    END
+$$;
+
+-- Хиты пишутся по времени, поэтому BRIN по timestamp компактен и хорошо отсекает диапазоны
+CREATE INDEX idx_hits_timestamp ON hits USING BRIN (timestamp);
+-- Покрывающий индекс для фильтра uri in (...) + диапазон времени и count(distinct ip)
+CREATE INDEX idx_hits_uri_timestamp_ip ON hits (uri, timestamp) INCLUDE (ip);
+CREATE INDEX idx_hits_event_id ON hits (event_id);
@@ -0,0 +1,146 @@
+package ru.practicum.statservice.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.statservice.model.EndpointHitDto;
+import ru.practicum.statservice.service.EndpointHitsService;
+import ru.practicum.statservice.service.HitsIngestQueue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Режим buffered с очередью на один хит. Запись пачки задерживается до release,
+ * поэтому видно, когда запрос ждёт, когда получает 503 и когда завершается.
+ */
+@SpringBootTest(properties = {
+        "stats.ingest.mode=buffered",
+        "stats.ingest.buffer.capacity=1",
+        "stats.ingest.buffer.batch-size=10"
+})
+@AutoConfigureMockMvc
+class BufferedHitsIngestTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicBoolean interrupted = new AtomicBoolean();
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private HitsIngestQueue ingestQueue;
+    @MockBean
+    private EndpointHitsService service;
+
+    @BeforeEach
+    void blockWrites() {
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            interrupted.compareAndSet(false, Thread.currentThread().isInterrupted());
+            return null;
+        }).when(service).createHits(anyList());
+    }
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    //Ответ уходит только после записи пачки; когда очередь полна, хит сразу получает 503
+    @Test
+    void fullQueueRejectsAndAcceptedHitsCompleteAfterWrite() throws Exception {
+        MvcResult writingHit = mvc.perform(hit("/events/1")).andExpect(request().asyncStarted()).andReturn();
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        MvcResult queuedHit = mvc.perform(hit("/events/2")).andExpect(request().asyncStarted()).andReturn();
+
+        mvc.perform(hit("/events/3")).andExpect(status().isServiceUnavailable());
+        //Пачка ещё пишется - ответа нет ни у записываемого, ни у ожидающего хита
+        assertThrows(IllegalStateException.class, () -> writingHit.getAsyncResult(100));
+        assertThrows(IllegalStateException.class, () -> queuedHit.getAsyncResult(100));
+
+        release.countDown();
+        mvc.perform(asyncDispatch(writingHit)).andExpect(status().isOk()).andExpect(jsonPath("$.uri").value("/events/1"));
+        mvc.perform(asyncDispatch(queuedHit)).andExpect(status().isOk()).andExpect(jsonPath("$.uri").value("/events/2"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EndpointHitDto>> batches = ArgumentCaptor.forClass(List.class);
+        verify(service, times(2)).createHits(batches.capture());
+        assertEquals("/events/1", batches.getAllValues().get(0).get(0).getUri());
+        assertEquals("/events/2", batches.getAllValues().get(1).get(0).getUri());
+    }
+
+    //stop() не прерывает идущую запись: ждёт её, дописывает очередь и только потом возвращается
+    @Test
+    @DirtiesContext
+    void stopDrainsQueueWithoutInterruptingWriter() throws Exception {
+        CompletableFuture<EndpointHitDto> writingHit = ingestQueue.submit(dto("/events/1"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<EndpointHitDto> queuedHit = ingestQueue.submit(dto("/events/2"));
+
+        Future<?> stop = executor.submit(() -> {
+            ingestQueue.stop();
+            return null;
+        });
+        Thread.sleep(100);
+        assertFalse(stop.isDone(), "stop must wait for the batch being written");
+        assertThrows(ResponseStatusException.class, () -> ingestQueue.submit(dto("/events/3")));
+
+        release.countDown();
+        stop.get(5, TimeUnit.SECONDS);
+
+        assertEquals("/events/1", writingHit.get(1, TimeUnit.SECONDS).getUri());
+        assertEquals("/events/2", queuedHit.get(1, TimeUnit.SECONDS).getUri());
+        assertFalse(interrupted.get(), "writer thread was interrupted during a write");
+    }
+
+    private static MockHttpServletRequestBuilder hit(String uri) {
+        return post("/hit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"app\":\"ewm\",\"uri\":\"" + uri + "\",\"ip\":\"10.0.0.1\","
+                        + "\"timestamp\":\"2024-05-01 10:00:00\"}");
+    }
+
+    private static EndpointHitDto dto(String uri) {
+        EndpointHitDto dto = new EndpointHitDto();
+        dto.setApp("ewm");
+        dto.setUri(uri);
+        dto.setIp("10.0.0.1");
+        dto.setTimestamp("2024-05-01 10:00:00");
+        return dto;
+    }
+}
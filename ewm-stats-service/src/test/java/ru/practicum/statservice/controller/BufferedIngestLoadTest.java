@@ -0,0 +1,18 @@
+package ru.practicum.statservice.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Та же нагрузка, что в JpaIngestLoadTest: одновременные хиты уходят в базу общими пачками
+@TestPropertySource(properties = "stats.ingest.mode=buffered")
+class BufferedIngestLoadTest extends IngestLoadTestSupport {
+
+    @Test
+    void concurrentHitsShareBatches() throws Exception {
+        long roundTrips = ingest("buffered", "/events/load-buffered");
+
+        assertTrue(roundTrips * 4 <= HITS, "expected under one round trip per 4 hits, got " + roundTrips);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.statservice.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.statservice.repository.HitsRollupRepository;
+import ru.practicum.statservice.util.load.JdbcRoundTrips;
+import ru.practicum.statservice.util.load.LoadRun;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Сравнение режимов приёма /hit (stats.ingest.mode) под одинаковой нагрузкой: HITS хитов из THREADS
+ * клиентов через MockMvc. Каждый режим проверяет, что все хиты учтены, и укладывается в свой бюджет
+ * обращений к базе на хит; пропускная способность и p99 печатаются в лог для сравнения.
+ */
+@Slf4j
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(JdbcRoundTrips.class)
+abstract class IngestLoadTestSupport {
+
+    protected static final int THREADS = 32;
+    protected static final int HITS = 1000;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private HitsRollupRepository rollupRepo;
+
+    //Возвращает число обращений к базе за прогон
+    protected long ingest(String mode, String uri) throws Exception {
+        long before = JdbcRoundTrips.count();
+        LoadRun run = LoadRun.run(THREADS, HITS, n -> {
+            MvcResult result = mvc.perform(post("/hit")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"app\":\"ewm\",\"uri\":\"" + uri + "\",\"ip\":\"10.1." + n % 200 + "." + n % 7
+                                    + "\",\"timestamp\":\"2024-06-01 10:00:00\"}"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        });
+        long roundTrips = JdbcRoundTrips.count() - before;
+
+        log.info("Ingest mode {}: {}, {} database round trips ({} per hit)", mode, run, roundTrips,
+                String.format("%.2f", (double) roundTrips / HITS));
+        assertEquals(HITS, rollupRepo.sumAll(List.of(uri)).get(0).getHits());
+        return roundTrips;
+    }
+}
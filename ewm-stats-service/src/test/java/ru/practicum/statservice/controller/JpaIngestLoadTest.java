@@ -0,0 +1,16 @@
+package ru.practicum.statservice.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Режим по умолчанию: хит, его счётчик и скетч - отдельная транзакция на каждый запрос
+class JpaIngestLoadTest extends IngestLoadTestSupport {
+
+    @Test
+    void everyHitIsWrittenInItsOwnTransaction() throws Exception {
+        long roundTrips = ingest("jpa", "/events/load-jpa");
+
+        assertTrue(roundTrips >= HITS, "at least one insert per hit expected, got " + roundTrips);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.statservice.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.statservice.model.HitsBucketKey;
+import ru.practicum.statservice.model.ViewStatsDto;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class HitsRollupRepositoryTest {
+
+    private static final int THREADS = 8;
+    private static final int INCREMENTS = 50;
+
+    @Autowired
+    private HitsRollupRepository rollupRepo;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    //Бакета ещё нет: транзакции одновременно создают его и наращивают, ни одно приращение не должно потеряться
+    @Test
+    void concurrentIncrementsAreNotLost() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        String uri = "/events/rollup-race";
+        HitsBucketKey key = new HitsBucketKey(uri, "ewm", LocalDateTime.now().truncatedTo(ChronoUnit.HOURS));
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                tasks.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < INCREMENTS; i++) {
+                        tx.executeWithoutResult(status -> rollupRepo.increment(Map.of(key, 1L)));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        List<ViewStatsDto> stats = rollupRepo.sumAll(List.of(uri));
+        assertEquals(1, stats.size());
+        assertEquals(THREADS * INCREMENTS, stats.get(0).getHits());
+    }
+}
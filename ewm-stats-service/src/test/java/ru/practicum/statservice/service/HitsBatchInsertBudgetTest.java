@@ -0,0 +1,75 @@
+package ru.practicum.statservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.statservice.model.EndpointHitDto;
+import ru.practicum.statservice.repository.HitsRollupRepository;
+import ru.practicum.statservice.util.load.JdbcRoundTrips;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Пакетная запись (createHits, JDBC batch) против записи по одному хиту (createHit, JPA) на одних и тех же
+ * HITS хитах. Бюджет - обращения к базе: пачка укладывается в константу, одиночная запись растёт с числом хитов.
+ * Скорость обоих путей печатается в лог.
+ */
+@Slf4j
+@SpringBootTest
+@Import(JdbcRoundTrips.class)
+class HitsBatchInsertBudgetTest {
+
+    private static final int HITS = 1000;
+    private static final int BATCH_ROUND_TRIPS = 10;
+
+    @Autowired
+    private EndpointHitsService service;
+    @Autowired
+    private HitsRollupRepository rollupRepo;
+
+    @Test
+    void batchInsertStaysWithinConstantRoundTrips() {
+        List<EndpointHitDto> single = hits("/events/insert-single");
+        List<EndpointHitDto> batch = hits("/events/insert-batch");
+
+        long before = JdbcRoundTrips.count();
+        long start = System.nanoTime();
+        single.forEach(service::createHit);
+        long singleNanos = System.nanoTime() - start;
+        long singleRoundTrips = JdbcRoundTrips.count() - before;
+
+        before = JdbcRoundTrips.count();
+        start = System.nanoTime();
+        service.createHits(batch);
+        long batchNanos = System.nanoTime() - start;
+        long batchRoundTrips = JdbcRoundTrips.count() - before;
+
+        log.info("One-row path: {} hits/s, {} round trips; batch path: {} hits/s, {} round trips",
+                HITS * 1_000_000_000L / singleNanos, singleRoundTrips, HITS * 1_000_000_000L / batchNanos,
+                batchRoundTrips);
+        assertEquals(HITS, rollupRepo.sumAll(List.of("/events/insert-single")).get(0).getHits());
+        assertEquals(HITS, rollupRepo.sumAll(List.of("/events/insert-batch")).get(0).getHits());
+        assertTrue(singleRoundTrips >= HITS, "one-row path: " + singleRoundTrips + " round trips");
+        assertTrue(batchRoundTrips <= BATCH_ROUND_TRIPS,
+                "batch path: " + batchRoundTrips + " round trips, limit " + BATCH_ROUND_TRIPS);
+    }
+
+    private static List<EndpointHitDto> hits(String uri) {
+        List<EndpointHitDto> hits = new ArrayList<>(HITS);
+        for (int i = 0; i < HITS; i++) {
+            EndpointHitDto dto = new EndpointHitDto();
+            dto.setApp("ewm");
+            dto.setUri(uri);
+            dto.setIp("10.2." + i / 250 + "." + i % 250);
+            dto.setTimestamp("2024-07-01 10:00:00");
+            hits.add(dto);
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.statservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.statservice.repository.HitsPartitionRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+//Секции есть только в PostgreSQL, поэтому репозиторий секций подменён; счётчики и скетчи - настоящие
+@SpringBootTest(properties = "stats.partitions.retention-months=2")
+class HitsPartitionServiceTest {
+
+    private static final String URI = "/events/retention";
+
+    @Autowired
+    private HitsPartitionService partitionService;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @MockBean
+    private HitsPartitionRepository partitionRepo;
+
+    @Test
+    void retentionDropsAggregatesWithPartitions() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime expired = now.minusMonths(4);
+        LocalDateTime kept = now.minusMonths(1);
+        for (LocalDateTime bucket : List.of(expired, kept)) {
+            jdbc.update("INSERT INTO hits_rollup (uri, app, bucket_start, hits) VALUES (?, 'ewm', ?, 1)",
+                    URI, Timestamp.valueOf(bucket));
+            jdbc.update("INSERT INTO hits_sketches (uri, app, bucket_start, sketch) VALUES (?, 'ewm', ?, X'')",
+                    URI, Timestamp.valueOf(bucket));
+        }
+        when(partitionRepo.isPartitioned()).thenReturn(true);
+        when(partitionRepo.findPartitions()).thenReturn(List.of());
+
+        partitionService.maintainPartitions();
+
+        for (String table : List.of("hits_rollup", "hits_sketches")) {
+            List<Timestamp> buckets = jdbc.queryForList("SELECT bucket_start FROM " + table + " WHERE uri = ?",
+                    Timestamp.class, URI);
+            assertEquals(List.of(Timestamp.valueOf(kept)), buckets, table);
+        }
+    }
+
+    //Хиты вне секций не переживают срок хранения: hits_default чистится по той же границе
+    @Test
+    void retentionCleansDefaultPartition() {
+        when(partitionRepo.isPartitioned()).thenReturn(true);
+        when(partitionRepo.findPartitions()).thenReturn(List.of(
+                HitsPartitionRepository.partitionName(YearMonth.now().minusMonths(3)),
+                HitsPartitionRepository.partitionName(YearMonth.now().minusMonths(2))));
+
+        partitionService.maintainPartitions();
+
+        YearMonth oldestKept = YearMonth.now().minusMonths(2);
+        verify(partitionRepo).dropPartition(oldestKept.minusMonths(1));
+        verify(partitionRepo, never()).dropPartition(oldestKept);
+        verify(partitionRepo).deleteDefaultBefore(oldestKept.atDay(1).atStartOfDay());
+    }
+}
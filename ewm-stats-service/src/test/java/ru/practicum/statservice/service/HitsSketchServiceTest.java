@@ -0,0 +1,77 @@
+package ru.practicum.statservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.statservice.model.EndpointHitDto;
+import ru.practicum.statservice.model.StatsRequestDto;
+import ru.practicum.statservice.model.UniqueMode;
+import ru.practicum.statservice.model.ViewStatsDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.statservice.util.DateFormatter.FORMATTER;
+
+//unique=approximate против точного COUNT(DISTINCT ip): полные часы берутся из скетчей, края - по сырым IP
+@SpringBootTest
+class HitsSketchServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 9, 0);
+
+    @Autowired
+    private EndpointHitsService service;
+
+    @Test
+    void approximateUniqueMatchesExact() {
+        List<String> uris = List.of("/events/sketch-a", "/events/sketch-b");
+        List<EndpointHitDto> hits = new ArrayList<>();
+        //6 часов, на каждый uri свой набор IP с пересечениями между часами
+        for (int minute = 0; minute < 6 * 60; minute++) {
+            for (int i = 0; i < 10; i++) {
+                hits.add(hit(uris.get(0), "10.1." + (minute / 60) + "." + (minute * 7 + i) % 250,
+                        START.plusMinutes(minute)));
+                hits.add(hit(uris.get(1), "10.2.0." + (minute + i) % 40, START.plusMinutes(minute)));
+            }
+        }
+        service.createHits(hits);
+
+        //Неполные края с обеих сторон, чтобы проверить и сырые IP, и скетчи
+        StatsRequestDto request = new StatsRequestDto();
+        request.setStart(START.plusMinutes(20));
+        request.setEnd(START.plusHours(5).plusMinutes(30));
+        request.setUris(uris);
+
+        Map<String, Long> exact = count(request, UniqueMode.EXACT);
+        Map<String, Long> approximate = count(request, UniqueMode.APPROXIMATE);
+
+        assertEquals(exact.keySet(), approximate.keySet());
+        for (String uri : uris) {
+            double error = Math.abs(approximate.get(uri) - exact.get(uri)) / (double) exact.get(uri);
+            assertTrue(error <= 0.05, uri + ": exact " + exact.get(uri) + ", approximate " + approximate.get(uri));
+        }
+    }
+
+    private Map<String, Long> count(StatsRequestDto request, UniqueMode unique) {
+        request.setUnique(unique);
+        Map<String, Long> result = new HashMap<>();
+        for (ViewStatsDto stats : service.getStatistics(request)) {
+            result.put(stats.getUri(), stats.getHits());
+        }
+        return result;
+    }
+
+    private static EndpointHitDto hit(String uri, String ip, LocalDateTime timestamp) {
+        EndpointHitDto dto = new EndpointHitDto();
+        dto.setApp("ewm");
+        dto.setUri(uri);
+        dto.setIp(ip);
+        dto.setTimestamp(timestamp.format(FORMATTER));
+        return dto;
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.statservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.statservice.model.EndpointHitDto;
+import ru.practicum.statservice.model.StatsRequestDto;
+import ru.practicum.statservice.model.UniqueMode;
+import ru.practicum.statservice.model.ViewStatsDto;
+import ru.practicum.statservice.repository.HitsRollupRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static ru.practicum.statservice.util.DateFormatter.FORMATTER;
+
+//Одиночный /hit обновляет счётчик и скетч в своей транзакции: отложенных в памяти приращений нет
+@SpringBootTest
+class SingleHitAggregatesTest {
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2024, 3, 10, 12, 0);
+
+    @Autowired
+    private EndpointHitsService service;
+    @Autowired
+    private HitsRollupRepository rollupRepo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @SpyBean
+    private HitsSketchService sketchService;
+
+    @Test
+    void singleHitsReachRollupOnCommit() {
+        String uri = "/events/aggregated";
+        service.createHit(hit(uri, "10.0.0.1"));
+        service.createHit(hit(uri, "10.0.0.2"));
+        service.createHit(hit(uri, "10.0.0.1"));
+
+        assertEquals(3, rollupRepo.sumAll(List.of(uri)).get(0).getHits());
+        assertEquals(3, count(uri, UniqueMode.NONE));
+        assertEquals(2, count(uri, UniqueMode.APPROXIMATE));
+    }
+
+    @Test
+    void concurrentSingleHitsAreCountedOnce() throws Exception {
+        String uri = "/events/aggregated-concurrent";
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String ip = "10.0.1." + (i % 50);
+                tasks.add(pool.submit(() -> service.createHit(hit(uri, ip))));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(200, count(uri, UniqueMode.NONE));
+        //Приближённый подсчёт: допуск в пределах относительной ошибки скетча
+        assertEquals(50, count(uri, UniqueMode.APPROXIMATE), 50 * 0.05);
+    }
+
+    //Хит и его агрегаты фиксируются вместе: без скетча не остаётся ни сырого хита, ни счётчика
+    @Test
+    void failedAggregatesRollBackRawHit() {
+        String uri = "/events/aggregated-failed";
+        doThrow(new IllegalStateException("sketch write failed")).when(sketchService).record(anyMap());
+        try {
+            assertThrows(IllegalStateException.class, () -> service.createHit(hit(uri, "10.0.2.1")));
+        } finally {
+            reset(sketchService);
+        }
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hits WHERE uri = ?", Long.class, uri));
+        assertEquals(List.of(), rollupRepo.sumAll(List.of(uri)));
+    }
+
+    private long count(String uri, UniqueMode unique) {
+        StatsRequestDto request = new StatsRequestDto();
+        request.setStart(HOUR.minusHours(1));
+        request.setEnd(HOUR.plusHours(2));
+        request.setUris(List.of(uri));
+        request.setUnique(unique);
+        List<ViewStatsDto> stats = service.getStatistics(request);
+        return stats.isEmpty() ? 0 : stats.get(0).getHits();
+    }
+
+    private static EndpointHitDto hit(String uri, String ip) {
+        EndpointHitDto dto = new EndpointHitDto();
+        dto.setApp("ewm");
+        dto.setUri(uri);
+        dto.setIp(ip);
+        dto.setTimestamp(HOUR.plusMinutes(30).format(FORMATTER));
+        return dto;
+    }
+}
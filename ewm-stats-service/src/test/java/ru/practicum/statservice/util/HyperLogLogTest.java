@@ -0,0 +1,122 @@
+package ru.practicum.statservice.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    private static final int PRECISION = HyperLogLog.precisionFor(0.02);
+
+    //Хэш детерминирован, поэтому оценка воспроизводима; допуск - три стандартные ошибки
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 1_000, 10_000, 100_000})
+    void estimateIsWithinRelativeError(int cardinality) {
+        HyperLogLog sketch = sketchOf(0, cardinality);
+        double stdError = 1.04 / Math.sqrt(1 << PRECISION);
+
+        double error = Math.abs(sketch.cardinality() - cardinality) / (double) cardinality;
+        assertTrue(error <= 3 * stdError, "cardinality " + cardinality + ": estimate " + sketch.cardinality()
+                + ", relative error " + error);
+    }
+
+    @Test
+    void repeatedValuesAreCountedOnce() {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (int i = 0; i < 10; i++) {
+            sketch.offer("10.0.0.1");
+        }
+        assertEquals(1, sketch.cardinality());
+    }
+
+    //Слияние - поэлементный максимум регистров: результат совпадает со скетчем объединения
+    @Test
+    void mergeEqualsSketchOfUnion() {
+        HyperLogLog first = sketchOf(0, 6_000);
+        HyperLogLog second = sketchOf(4_000, 10_000);
+
+        HyperLogLog merged = first.merge(second);
+
+        assertArrayEquals(sketchOf(0, 10_000).toBytes(), merged.toBytes());
+        assertArrayEquals(merged.toBytes(), second.merge(first).toBytes());
+    }
+
+    @Test
+    void mergeDoesNotChangeOperands() {
+        HyperLogLog first = sketchOf(0, 100);
+        HyperLogLog second = sketchOf(100, 200);
+        byte[] before = first.toBytes();
+
+        first.merge(second);
+
+        assertArrayEquals(before, first.toBytes());
+    }
+
+    //Скетч большей точности сворачивается: слияние равно скетчу объединения при меньшей точности
+    @Test
+    void mergeOfDifferentPrecisionsFoldsToLower() {
+        HyperLogLog precise = sketchOf(14, 0, 5_000);
+        HyperLogLog coarse = sketchOf(10, 3_000, 8_000);
+
+        HyperLogLog merged = precise.merge(coarse);
+
+        assertEquals(10, merged.getPrecision());
+        assertArrayEquals(sketchOf(10, 0, 8_000).toBytes(), merged.toBytes());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 50, 100_000})
+    void serializationRoundTrip(int cardinality) {
+        HyperLogLog sketch = sketchOf(0, cardinality);
+
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes(), HyperLogLog.MIN_PRECISION);
+
+        assertEquals(sketch.getPrecision(), restored.getPrecision());
+        assertEquals(sketch.cardinality(), restored.cardinality());
+        assertArrayEquals(sketch.toBytes(), restored.toBytes());
+    }
+
+    //Маленькие скетчи хранятся разреженно: 3 байта на непустой регистр вместо всего массива
+    @Test
+    void smallSketchIsSparse() {
+        HyperLogLog sketch = sketchOf(0, 20);
+
+        assertTrue(sketch.toBytes().length <= 2 + 20 * 3);
+    }
+
+    @Test
+    void emptyBytesGiveEmptySketch() {
+        assertEquals(0, HyperLogLog.fromBytes(null, PRECISION).cardinality());
+        assertEquals(PRECISION, HyperLogLog.fromBytes(new byte[0], PRECISION).getPrecision());
+    }
+
+    @Test
+    void precisionForRelativeError() {
+        assertEquals(12, HyperLogLog.precisionFor(0.02));
+        assertEquals(HyperLogLog.MAX_PRECISION, HyperLogLog.precisionFor(0.0001));
+        assertEquals(HyperLogLog.MIN_PRECISION, HyperLogLog.precisionFor(0.9));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.precisionFor(0));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(HyperLogLog.MAX_PRECISION + 1));
+    }
+
+    private static HyperLogLog sketchOf(int from, int to) {
+        return sketchOf(PRECISION, from, to);
+    }
+
+    private static HyperLogLog sketchOf(int precision, int from, int to) {
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for (int i = from; i < to; i++) {
+            sketch.offer(ip(i));
+        }
+        return sketch;
+    }
+
+    private static String ip(int i) {
+        return "10." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.statservice.util.load;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счётчик обращений к базе: DataSource оборачивается прокси, и каждый execute* выражения
+ * (в том числе executeBatch целой пачки) считается одним обращением. Считает и JPA, и JdbcTemplate.
+ * Подключается через @Import; счётчик общий, поэтому замер - разность count() до и после.
+ */
+public class JdbcRoundTrips implements BeanPostProcessor {
+
+    private static final AtomicLong COUNT = new AtomicLong();
+
+    public static long count() {
+        return COUNT.get();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource) {
+            return wrap(bean, DataSource.class);
+        }
+        return bean;
+    }
+
+    private static Object wrap(Object target, Class<?> type) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (Statement.class.isAssignableFrom(type) && method.getName().startsWith("execute")) {
+                COUNT.incrementAndGet();
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            Class<?> returned = method.getReturnType();
+            if (result != null && (returned == Connection.class || Statement.class.isAssignableFrom(returned))) {
+                return wrap(result, returned);
+            }
+            return result;
+        };
+        return Proxy.newProxyInstance(JdbcRoundTrips.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
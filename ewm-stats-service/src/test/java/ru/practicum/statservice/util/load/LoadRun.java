@@ -0,0 +1,70 @@
+package ru.practicum.statservice.util.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный прогон: calls вызовов из threads потоков одновременно. Меряет пропускную способность
+ * и перцентили задержки одного вызова. Цифры зависят от машины, поэтому тесты их только печатают,
+ * а проверяют число обращений к базе.
+ */
+public final class LoadRun {
+
+    private final long elapsedNanos;
+    private final long[] latencies;
+
+    private LoadRun(long elapsedNanos, long[] latencies) {
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = latencies;
+    }
+
+    public static LoadRun run(int threads, int calls, Call call) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long[] latencies = new long[calls];
+        try {
+            List<Future<?>> tasks = new ArrayList<>(calls);
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                int n = i;
+                tasks.add(pool.submit(() -> {
+                    long begin = System.nanoTime();
+                    call.run(n);
+                    latencies[n] = System.nanoTime() - begin;
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(1, TimeUnit.MINUTES);
+            }
+            long elapsed = System.nanoTime() - start;
+            Arrays.sort(latencies);
+            return new LoadRun(elapsed, latencies);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    public double throughput() {
+        return latencies.length * 1e9 / elapsedNanos;
+    }
+
+    public double percentileMs(double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+        return latencies[Math.max(index, 0)] / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d calls, %.0f calls/s, p50=%.2f ms, p99=%.2f ms", latencies.length, throughput(),
+                percentileMs(50), percentileMs(99));
+    }
+
+    public interface Call {
+        void run(int n) throws Exception;
+    }
+}